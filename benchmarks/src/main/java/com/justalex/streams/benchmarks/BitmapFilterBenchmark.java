@@ -0,0 +1,46 @@
+package com.justalex.streams.benchmarks;
+
+import com.justalex.streams.bitmap.UserBitmapIndex;
+import com.justalex.streams.bitmap.UserFilter;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.justalex.streams.bitmap.UserFilter.*;
+import static com.justalex.streams.users.Gender.FEMALE;
+
+/**
+ * Selective gender and age filter: per row predicates over objects against bitmap evaluation over a {@link UserTable}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BitmapFilterBenchmark {
+
+    private static final UserFilter FILTER = and(gender(FEMALE), ageBetween(20, 29));
+
+    private UserBitmapIndex index;
+
+    @Setup(Level.Trial)
+    public void buildIndex(UserDataset data) {
+        index = new UserBitmapIndex(UserTable.of(data.users));
+    }
+
+    @Benchmark
+    public int streamFilter(UserDataset data) {
+        return data.users()
+            .filter(user -> user.getGender() == FEMALE && user.getAge() >= 20 && user.getAge() <= 29)
+            .mapToInt(User::getAge)
+            .sum();
+    }
+
+    @Benchmark
+    public int bitmapFilter(UserDataset data) {
+        return data.parallel ? index.ages(FILTER).parallel().sum() : index.ages(FILTER).sum();
+    }
+}
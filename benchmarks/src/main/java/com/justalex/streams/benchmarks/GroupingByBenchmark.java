@@ -0,0 +1,118 @@
+package com.justalex.streams.benchmarks;
+
+import com.justalex.streams.collectors.EnumCollectors;
+import com.justalex.streams.collectors.IntKeyGroupingCollector;
+import com.justalex.streams.collectors.NameAgeGroupingCollector;
+import com.justalex.streams.collectors.StripedGroupingCollector;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.NameAge;
+import com.justalex.streams.users.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Comparator.comparingInt;
+import static java.util.stream.Collectors.*;
+
+/**
+ * Collector patterns of {@code GroupingByExamples}, numbered like the tests, plus the specialized alternatives.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GroupingByBenchmark {
+
+    @Benchmark
+    public Map<String, Long> groupBy0CountDuplicates(UserDataset data) {
+        return data.names().collect(groupingBy(x -> x, counting()));
+    }
+
+    @Benchmark
+    public Map<Gender, List<User>> groupBy1SingleColumn(UserDataset data) {
+        return data.users().collect(groupingBy(User::getGender));
+    }
+
+    @Benchmark
+    public Map<NameAge, List<User>> groupBy2ComplexKey(UserDataset data) {
+        return data.users().collect(groupingBy(user -> new NameAge(user.getName(), user.getAge())));
+    }
+
+    @Benchmark
+    public Map<NameAge, List<User>> groupBy2ComplexKeyProbe(UserDataset data) {
+        return data.users().collect(NameAgeGroupingCollector.groupingByNameAge(User::getName, User::getAge));
+    }
+
+    @Benchmark
+    public Map<Gender, Set<User>> groupBy3ToSet(UserDataset data) {
+        return data.users().collect(groupingBy(User::getGender, toSet()));
+    }
+
+    @Benchmark
+    public Map<String, Map<Gender, List<User>>> groupBy4Secondary(UserDataset data) {
+        return data.users().collect(groupingBy(User::getName, groupingBy(User::getGender)));
+    }
+
+    @Benchmark
+    public Map<Gender, Double> groupBy5Average(UserDataset data) {
+        return data.users().collect(groupingBy(User::getGender, averagingInt(User::getAge)));
+    }
+
+    @Benchmark
+    public Map<Gender, Integer> groupBy6Sum(UserDataset data) {
+        return data.users().collect(groupingBy(User::getGender, summingInt(User::getAge)));
+    }
+
+    @Benchmark
+    public EnumMap<Gender, Integer> groupBy6SumByEnum(UserDataset data) {
+        return data.users().collect(EnumCollectors.summingIntByEnum(Gender.class, User::getGender, User::getAge));
+    }
+
+    @Benchmark
+    public Map<Gender, Optional<User>> groupBy7Max(UserDataset data) {
+        return data.users().collect(groupingBy(User::getGender, maxBy(comparingInt(User::getAge))));
+    }
+
+    @Benchmark
+    public Map<Gender, IntSummaryStatistics> groupBy8Summary(UserDataset data) {
+        return data.users().collect(groupingBy(User::getGender, summarizingInt(User::getAge)));
+    }
+
+    @Benchmark
+    public EnumMap<Gender, IntSummaryStatistics> groupBy8SummaryByEnum(UserDataset data) {
+        return data.users().collect(EnumCollectors.summarizingIntByEnum(Gender.class, User::getGender, User::getAge));
+    }
+
+    @Benchmark
+    public Map<Gender, String> groupBy9MappingJoining(UserDataset data) {
+        return data.users().collect(groupingBy(User::getGender, mapping(User::getName, joining(", "))));
+    }
+
+    @Benchmark
+    public EnumMap<Gender, List<User>> groupBy10EnumMap(UserDataset data) {
+        return data.users().collect(groupingBy(User::getGender, () -> new EnumMap<>(Gender.class), toList()));
+    }
+
+    @Benchmark
+    public ConcurrentMap<Gender, List<User>> groupBy11Concurrent(UserDataset data) {
+        return data.users().collect(groupingByConcurrent(User::getGender));
+    }
+
+    @Benchmark
+    public ConcurrentMap<Gender, List<User>> groupBy11ConcurrentStriped(UserDataset data) {
+        return data.users().collect(StripedGroupingCollector.groupingByConcurrent(User::getGender));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> groupByAgeCounting(UserDataset data) {
+        return data.users().collect(groupingBy(User::getAge, counting()));
+    }
+
+    @Benchmark
+    public Map<Integer, Long> groupByAgeCountingIntKey(UserDataset data) {
+        return data.users().collect(IntKeyGroupingCollector.counting(User::getAge));
+    }
+}
@@ -0,0 +1,53 @@
+package com.justalex.streams.benchmarks;
+
+import com.justalex.streams.users.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Stream patterns of {@code StreamApiExamples} over the generated users.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StreamApiBenchmark {
+
+    @Benchmark
+    public List<Integer> flatMap(UserDataset data) {
+        return data.stream(data.nestedAges)
+            .flatMap(List::stream)
+            .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public LinkedHashMap<String, Integer> sortMapByValue(UserDataset data) {
+        return data.stream(data.ageByName.entrySet())
+            .sorted(Map.Entry.comparingByValue())
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (oldValue, newValue) -> oldValue, LinkedHashMap::new));
+    }
+
+    @Benchmark
+    public Map<String, Integer> toMap(UserDataset data) {
+        return data.users().collect(Collectors.toMap(User::getName, User::getAge, (oldValue, newValue) -> oldValue));
+    }
+
+    @Benchmark
+    public String joining(UserDataset data) {
+        return data.names().collect(Collectors.joining(", "));
+    }
+
+    @Benchmark
+    public int reduce(UserDataset data) {
+        return data.users().map(User::getAge).reduce(0, (x, y) -> x + y);
+    }
+
+    @Benchmark
+    public int reduceToInt(UserDataset data) {
+        return data.users().mapToInt(User::getAge).sum();
+    }
+}
@@ -0,0 +1,71 @@
+package com.justalex.streams.benchmarks;
+
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.summingInt;
+
+/**
+ * Generated users shared by all benchmarks of a trial. Sizes up to 50M rows are supported,
+ * pass them with {@code -p size=...} together with a big enough {@code -Xmx}.
+ */
+@State(Scope.Benchmark)
+public class UserDataset {
+
+    static final long SEED = 42L;
+    static final int DISTINCT_NAMES = 1000;
+
+    @Param({"1000", "1000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    List<User> users;
+    List<String> names;
+    Map<String, Integer> ageByName;
+    List<List<Integer>> nestedAges;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        users = UserGenerator.builder()
+            .seed(SEED)
+            .distinctNames(DISTINCT_NAMES)
+            .build()
+            .users(size)
+            .collect(toCollection(() -> new ArrayList<>(size)));
+        names = users.stream().map(User::getName).collect(toCollection(() -> new ArrayList<>(size)));
+        ageByName = users.stream().collect(groupingBy(User::getName, summingInt(User::getAge)));
+
+        nestedAges = new ArrayList<>(size / 10 + 1);
+        for (int i = 0; i < size; i += 10) {
+            List<Integer> chunk = new ArrayList<>(10);
+            for (int j = i; j < Math.min(i + 10, size); j++) {
+                chunk.add(users.get(j).getAge());
+            }
+            nestedAges.add(chunk);
+        }
+    }
+
+    Stream<User> users() {
+        return stream(users);
+    }
+
+    Stream<String> names() {
+        return stream(names);
+    }
+
+    <E> Stream<E> stream(Collection<E> source) {
+        return parallel ? source.parallelStream() : source.stream();
+    }
+}
@@ -0,0 +1,117 @@
+package com.justalex.streams.benchmarks;
+
+import com.justalex.streams.query.Aggregate;
+import com.justalex.streams.query.GroupKey;
+import com.justalex.streams.query.UserQuery;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingInt;
+
+/**
+ * Total age per gender of adults: stream pipeline, {@link UserQuery} and a hand-written loop.
+ * The query and the loop are sequential, compare them with {@code -p parallel=false}.
+ * The {@code afterOtherShapes} variants first run other query shapes over other sources in the same fork, like many
+ * pipelines sharing a JVM; a loop shared by all queries would lose its monomorphic call sites there.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserQueryBenchmark {
+
+    private static final UserQuery<Gender, Integer> QUERY = UserQuery.groupBy(GroupKey.GENDER, Aggregate.SUM_AGE).whereAgeBetween(18, 150);
+
+    @Benchmark
+    public Map<Gender, Integer> stream(UserDataset data) {
+        return data.users()
+            .filter(user -> user.getAge() >= 18 && user.getAge() <= 150)
+            .collect(groupingBy(User::getGender, summingInt(User::getAge)));
+    }
+
+    @Benchmark
+    public Map<Gender, Integer> userQuery(UserDataset data) {
+        return QUERY.execute(data.users);
+    }
+
+    @Benchmark
+    public Map<Gender, Integer> userQueryAfterOtherShapes(UserDataset data, OtherShapes otherShapes) {
+        return QUERY.execute(data.users);
+    }
+
+    @Benchmark
+    public Map<Gender, Integer> userQueryOverTableAfterOtherShapes(OtherShapes otherShapes) {
+        return QUERY.execute(otherShapes.tableRows);
+    }
+
+    @Benchmark
+    public Map<Gender, Integer> handWrittenLoop(UserDataset data) {
+        int[] sums = new int[Gender.values().length];
+        boolean[] seen = new boolean[sums.length];
+        for (User user : data.users) {
+            int age = user.getAge();
+            if (age >= 18 && age <= 150) {
+                int ordinal = user.getGender().ordinal();
+                sums[ordinal] += age;
+                seen[ordinal] = true;
+            }
+        }
+        Map<Gender, Integer> result = new EnumMap<>(Gender.class);
+        for (Gender gender : Gender.values()) {
+            if (seen[gender.ordinal()]) {
+                result.put(gender, sums[gender.ordinal()]);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Runs every group key with several filter combinations over a list, a linked list and table rows
+     * often enough for the JIT to compile them.
+     */
+    @State(Scope.Benchmark)
+    public static class OtherShapes {
+
+        private static final int SAMPLE_SIZE = 10_000;
+        private static final int ROUNDS = 300;
+
+        Iterable<User> tableRows;
+
+        @Setup(Level.Trial)
+        public void runOtherShapes(UserDataset data) {
+            UserTable table = UserTable.of(data.users);
+            tableRows = () -> table.users().iterator();
+
+            List<User> sample = new ArrayList<>(data.users.subList(0, Math.min(SAMPLE_SIZE, data.size)));
+            UserTable sampleTable = UserTable.of(sample);
+            List<Iterable<? extends User>> sources = Arrays.asList(sample, new LinkedList<>(sample), () -> sampleTable.users().iterator());
+            List<UserQuery<?, ?>> queries = Arrays.asList(
+                UserQuery.groupBy(GroupKey.GENDER, Aggregate.COUNT),
+                UserQuery.groupBy(GroupKey.GENDER, Aggregate.AVERAGE_AGE).whereGender(Gender.MALE),
+                UserQuery.groupBy(GroupKey.GENDER, Aggregate.MAX_AGE).whereName(sample.get(0).getName()),
+                UserQuery.groupBy(GroupKey.AGE, Aggregate.COUNT).whereAgeBetween(20, 60),
+                UserQuery.groupBy(GroupKey.NAME, Aggregate.SUM_AGE),
+                UserQuery.groupBy(GroupKey.NAME, Aggregate.AGE_SUMMARY).whereGender(Gender.FEMALE).whereAgeBetween(30, 40)
+            );
+            for (int round = 0; round < ROUNDS; round++) {
+                for (UserQuery<?, ?> query : queries) {
+                    for (Iterable<? extends User> source : sources) {
+                        query.execute(source);
+                    }
+                }
+            }
+        }
+    }
+}
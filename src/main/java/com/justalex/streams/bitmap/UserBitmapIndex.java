@@ -0,0 +1,151 @@
+package com.justalex.streams.bitmap;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserTable;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Bitmaps over the rows of a {@link UserTable}: one per gender and one per age bucket of {@code bucketWidth} years.
+ * {@link UserFilter} trees are evaluated as bitmap operations and only the matching row ids are handed on,
+ * e.g. {@code index.users(filter).collect(groupingBy(...))}. Age ranges that don't line up with buckets are refined
+ * by checking the age column for the boundary buckets only.
+ * <p>
+ * Bitmaps only grow up to their last matching row and buckets without rows aren't allocated. There are at most
+ * {@value #MAX_AGE_BUCKETS} buckets starting at the youngest non-negative age, older outliers share the last bucket
+ * and negative ones the first, both are always refined against the age column.
+ * <p>
+ * The index is a snapshot: it has to be rebuilt after rows of the table are added or changed, using a stale index fails.
+ */
+public class UserBitmapIndex {
+
+    public static final int DEFAULT_BUCKET_WIDTH = 10;
+    public static final int MAX_AGE_BUCKETS = 1024;
+
+    private static final Gender[] GENDERS = Gender.values();
+
+    private final UserTable table;
+    private final int size;
+    private final long modificationCount;
+    private final int bucketWidth;
+    private final BitSet[] genderRows = new BitSet[GENDERS.length];
+    private final BitSet[] ageBuckets;
+    private final int bucketBase;
+    private final int minAge;
+    private final int maxAge;
+
+    public UserBitmapIndex(UserTable table) {
+        this(table, DEFAULT_BUCKET_WIDTH);
+    }
+
+    public UserBitmapIndex(UserTable table, int bucketWidth) {
+        if (bucketWidth < 1) {
+            throw new IllegalArgumentException("Bucket width must be positive: " + bucketWidth);
+        }
+        this.table = table;
+        this.size = table.size();
+        this.modificationCount = table.modificationCount();
+        this.bucketWidth = bucketWidth;
+
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        int minNonNegative = Integer.MAX_VALUE;
+        for (int row = 0; row < size; row++) {
+            int age = table.getAge(row);
+            min = Math.min(min, age);
+            max = Math.max(max, age);
+            if (age >= 0) {
+                minNonNegative = Math.min(minNonNegative, age);
+            }
+        }
+        this.minAge = min;
+        this.maxAge = max;
+        this.bucketBase = minNonNegative != Integer.MAX_VALUE ? minNonNegative : Math.max(min, 0);
+        long buckets = size == 0 ? 0 : ((long) max - bucketBase) / bucketWidth + 1;
+        ageBuckets = new BitSet[(int) Math.max(size == 0 ? 0 : 1, Math.min(buckets, MAX_AGE_BUCKETS))];
+
+        for (int row = 0; row < size; row++) {
+            int gender = table.getGenderOrdinal(row);
+            if (gender >= 0) {
+                if (genderRows[gender] == null) {
+                    genderRows[gender] = new BitSet();
+                }
+                genderRows[gender].set(row);
+            }
+            int bucket = bucketOf(table.getAge(row));
+            if (ageBuckets[bucket] == null) {
+                ageBuckets[bucket] = new BitSet();
+            }
+            ageBuckets[bucket].set(row);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public BitSet evaluate(UserFilter filter) {
+        checkNotStale();
+        return filter.evaluate(this);
+    }
+
+    public IntStream rowIds(UserFilter filter) {
+        return evaluate(filter).stream();
+    }
+
+    public IntStream ages(UserFilter filter) {
+        return rowIds(filter).map(table::getAge);
+    }
+
+    public Stream<User> users(UserFilter filter) {
+        return rowIds(filter).mapToObj(table::row);
+    }
+
+    BitSet genderRows(Gender gender) {
+        BitSet rows = gender == null ? null : genderRows[gender.ordinal()];
+        return rows == null ? new BitSet() : (BitSet) rows.clone();
+    }
+
+    BitSet ageRows(int from, int to) {
+        BitSet result = new BitSet();
+        if (size == 0 || from > to || to < minAge || from > maxAge) {
+            return result;
+        }
+        int firstBucket = bucketOf(from);
+        int lastBucket = bucketOf(to);
+        for (int bucket = firstBucket; bucket <= lastBucket; bucket++) {
+            BitSet rows = ageBuckets[bucket];
+            if (rows == null) {
+                continue;
+            }
+            // edge buckets also hold the outliers, their real bounds are the extreme ages
+            long bucketFrom = bucket == 0 ? minAge : bucketBase + (long) bucket * bucketWidth;
+            long bucketTo = bucket == ageBuckets.length - 1 ? maxAge : bucketBase + (long) (bucket + 1) * bucketWidth - 1;
+            if (from <= bucketFrom && bucketTo <= to) {
+                result.or(rows);
+            } else {
+                for (int row = rows.nextSetBit(0); row >= 0; row = rows.nextSetBit(row + 1)) {
+                    int age = table.getAge(row);
+                    if (age >= from && age <= to) {
+                        result.set(row);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private int bucketOf(int age) {
+        long bucket = ((long) age - bucketBase) / bucketWidth;
+        return (int) Math.max(0, Math.min(ageBuckets.length - 1, bucket));
+    }
+
+    private void checkNotStale() {
+        if (table.modificationCount() != modificationCount) {
+            throw new IllegalStateException("Table changed since the index was built for " + size + " rows, rebuild it");
+        }
+    }
+}
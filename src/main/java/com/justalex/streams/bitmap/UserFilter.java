@@ -0,0 +1,166 @@
+package com.justalex.streams.bitmap;
+
+import com.justalex.streams.users.Gender;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Filter tree over {@link UserBitmapIndex} rows. Leaves read bitmaps of the index,
+ * AND/OR/NOT nodes combine them word by word, no row is looked at unless an age range cuts through a bucket.
+ */
+public abstract class UserFilter {
+
+    UserFilter() {
+    }
+
+    public static UserFilter gender(Gender gender) {
+        return new GenderFilter(gender);
+    }
+
+    /**
+     * Both bounds inclusive.
+     */
+    public static UserFilter ageBetween(int minAge, int maxAge) {
+        return new AgeFilter(minAge, maxAge);
+    }
+
+    public static UserFilter and(UserFilter... filters) {
+        return new AndFilter(Arrays.asList(filters));
+    }
+
+    public static UserFilter or(UserFilter... filters) {
+        return new OrFilter(Arrays.asList(filters));
+    }
+
+    public static UserFilter not(UserFilter filter) {
+        return new NotFilter(filter);
+    }
+
+    public UserFilter and(UserFilter other) {
+        return and(this, other);
+    }
+
+    public UserFilter or(UserFilter other) {
+        return or(this, other);
+    }
+
+    /**
+     * @return a new bitmap of the matching rows, the caller may modify it
+     */
+    abstract BitSet evaluate(UserBitmapIndex index);
+
+    private static final class GenderFilter extends UserFilter {
+
+        private final Gender gender;
+
+        GenderFilter(Gender gender) {
+            this.gender = gender;
+        }
+
+        @Override
+        BitSet evaluate(UserBitmapIndex index) {
+            return index.genderRows(gender);
+        }
+
+        @Override
+        public String toString() {
+            return "gender = " + gender;
+        }
+    }
+
+    private static final class AgeFilter extends UserFilter {
+
+        private final int minAge;
+        private final int maxAge;
+
+        AgeFilter(int minAge, int maxAge) {
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+        }
+
+        @Override
+        BitSet evaluate(UserBitmapIndex index) {
+            return index.ageRows(minAge, maxAge);
+        }
+
+        @Override
+        public String toString() {
+            return "age in [" + minAge + ", " + maxAge + "]";
+        }
+    }
+
+    private static final class AndFilter extends UserFilter {
+
+        private final List<UserFilter> filters;
+
+        AndFilter(List<UserFilter> filters) {
+            if (filters.isEmpty()) {
+                throw new IllegalArgumentException("AND of no filters");
+            }
+            this.filters = filters;
+        }
+
+        @Override
+        BitSet evaluate(UserBitmapIndex index) {
+            BitSet result = filters.get(0).evaluate(index);
+            for (int i = 1; i < filters.size() && !result.isEmpty(); i++) {
+                result.and(filters.get(i).evaluate(index));
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "and" + filters;
+        }
+    }
+
+    private static final class OrFilter extends UserFilter {
+
+        private final List<UserFilter> filters;
+
+        OrFilter(List<UserFilter> filters) {
+            if (filters.isEmpty()) {
+                throw new IllegalArgumentException("OR of no filters");
+            }
+            this.filters = filters;
+        }
+
+        @Override
+        BitSet evaluate(UserBitmapIndex index) {
+            BitSet result = filters.get(0).evaluate(index);
+            for (int i = 1; i < filters.size(); i++) {
+                result.or(filters.get(i).evaluate(index));
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "or" + filters;
+        }
+    }
+
+    private static final class NotFilter extends UserFilter {
+
+        private final UserFilter filter;
+
+        NotFilter(UserFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        BitSet evaluate(UserBitmapIndex index) {
+            BitSet result = filter.evaluate(index);
+            result.flip(0, index.size());
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "not(" + filter + ")";
+        }
+    }
+}
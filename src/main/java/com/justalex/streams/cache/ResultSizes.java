@@ -0,0 +1,103 @@
+package com.justalex.streams.cache;
+
+import com.justalex.streams.collectors.JoinedText;
+import com.justalex.streams.sketches.CountMinSketch;
+import com.justalex.streams.sketches.HyperLogLog;
+import com.justalex.streams.sketches.TDigest;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.IntSummaryStatistics;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Rough retained size of typical query results on a 64-bit JVM with compressed references.
+ * Enum constants are shared and not counted, other shared objects such as cached boxes are counted like any other,
+ * so estimates err on the high side. Sketches and {@link JoinedText} report their own size; any other object is
+ * counted as a small one, pass an estimator of your own to the cache for results holding large unknown objects.
+ */
+public final class ResultSizes {
+
+    private static final long OBJECT = 16;
+    private static final long REFERENCE = 4;
+    private static final long MAP_ENTRY = 32;
+
+    private ResultSizes() {
+    }
+
+    public static long estimate(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Map) {
+            long bytes = OBJECT + 32;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) result).entrySet()) {
+                bytes += MAP_ENTRY + REFERENCE + estimate(entry.getKey()) + estimate(entry.getValue());
+            }
+            return bytes;
+        }
+        if (result instanceof Collection) {
+            long bytes = OBJECT + 16;
+            for (Object element : (Collection<?>) result) {
+                bytes += REFERENCE + estimate(element);
+            }
+            return bytes;
+        }
+        if (result instanceof CharSequence) {
+            return OBJECT + 24 + ((CharSequence) result).length() * 2L;
+        }
+        if (result instanceof Optional) {
+            return OBJECT + estimate(((Optional<?>) result).orElse(null));
+        }
+        if (result instanceof IntSummaryStatistics) {
+            return OBJECT + 32;
+        }
+        if (result instanceof Enum) {
+            return 0;
+        }
+        if (result.getClass().isArray()) {
+            return estimateArray(result);
+        }
+        if (result instanceof HyperLogLog) {
+            return ((HyperLogLog) result).estimatedBytes();
+        }
+        if (result instanceof TDigest) {
+            return ((TDigest) result).estimatedBytes();
+        }
+        if (result instanceof CountMinSketch) {
+            CountMinSketch<?> sketch = (CountMinSketch<?>) result;
+            long bytes = sketch.estimatedBytes();
+            for (Object item : sketch.heavyHitters().keySet()) {
+                bytes += estimate(item);
+            }
+            return bytes;
+        }
+        if (result instanceof JoinedText) {
+            return ((JoinedText) result).estimatedBytes();
+        }
+        return OBJECT + 8;
+    }
+
+    private static long estimateArray(Object array) {
+        int length = Array.getLength(array);
+        Class<?> component = array.getClass().getComponentType();
+        if (!component.isPrimitive()) {
+            long bytes = OBJECT + length * REFERENCE;
+            for (Object element : (Object[]) array) {
+                bytes += estimate(element);
+            }
+            return bytes;
+        }
+        if (component == long.class || component == double.class) {
+            return OBJECT + length * 8L;
+        }
+        if (component == int.class || component == float.class) {
+            return OBJECT + length * 4L;
+        }
+        if (component == short.class || component == char.class) {
+            return OBJECT + length * 2L;
+        }
+        return OBJECT + length;
+    }
+}
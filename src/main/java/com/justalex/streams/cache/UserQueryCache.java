@@ -0,0 +1,75 @@
+package com.justalex.streams.cache;
+
+import com.justalex.streams.incremental.UserRepository;
+import com.justalex.streams.query.UserQuery;
+import com.justalex.streams.users.User;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Shared results of repeated aggregations over a {@link UserRepository}.
+ * Results are cached per repository version, every change to the repository drops the results of older versions.
+ * A result is never older than the version the repository had when the request started.
+ * The cache listens to the repository until it is closed.
+ */
+public class UserQueryCache implements AutoCloseable {
+
+    private final UserRepository repository;
+    private final VersionedResultCache<Object, Object> cache;
+    private final Consumer<Object> invalidation;
+
+    public UserQueryCache(UserRepository repository, long maxBytes) {
+        this(repository, maxBytes, ResultSizes::estimate);
+    }
+
+    /**
+     * @param sizeEstimator estimated bytes of a result, for results {@link ResultSizes} doesn't know how to size
+     */
+    public UserQueryCache(UserRepository repository, long maxBytes, ToLongFunction<Object> sizeEstimator) {
+        this.repository = repository;
+        this.cache = new VersionedResultCache<>(maxBytes, sizeEstimator);
+        this.invalidation = change -> cache.invalidateBefore(repository.version());
+        repository.subscribe(invalidation);
+    }
+
+    /**
+     * Result of the query, an unmodifiable map shared with other callers.
+     */
+    @SuppressWarnings("unchecked")
+    public <K, R> Map<K, R> execute(UserQuery<K, R> query) {
+        return (Map<K, R>) cache.get(repository.version(), query,
+            ignored -> Collections.unmodifiableMap(repository.read(query::execute)));
+    }
+
+    /**
+     * Result of an arbitrary collector, e.g. {@code collect("countByGender", groupingBy(User::getGender, counting()))}.
+     * Lambdas can't be compared, so {@code descriptor} identifies the collector: equal descriptors must always
+     * be used with collectors giving equal results. The result is shared with other callers and must not be modified,
+     * users it holds, e.g. collected by {@code toList()}, are the repository's read-only snapshots.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R collect(Object descriptor, Collector<? super User, ?, R> collector) {
+        return (R) cache.get(repository.version(), descriptor,
+            ignored -> repository.read(users -> users.stream().collect(collector)));
+    }
+
+    /**
+     * Underlying cache, for its hit, miss and eviction counters and its size.
+     */
+    public VersionedResultCache<Object, Object> cache() {
+        return cache;
+    }
+
+    /**
+     * Stops listening to the repository and drops all results.
+     */
+    @Override
+    public void close() {
+        repository.unsubscribe(invalidation);
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,232 @@
+package com.justalex.streams.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Results of queries against a versioned dataset, keyed by the dataset version and a query descriptor
+ * with value equality. Entries are evicted least recently used first once their estimated size exceeds
+ * the byte bound. Concurrent requests of the same missing key wait for one computation instead of repeating it.
+ * Results are shared between callers and must not be modified.
+ */
+public class VersionedResultCache<Q, V> {
+
+    private final long maxBytes;
+    private final ToLongFunction<? super V> sizeEstimator;
+    private final LinkedHashMap<Key<Q>, CachedResult<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ConcurrentMap<Key<Q>, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sharedLoads = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private long bytes;
+    private long minVersion = Long.MIN_VALUE;
+
+    public VersionedResultCache(long maxBytes) {
+        this(maxBytes, ResultSizes::estimate);
+    }
+
+    public VersionedResultCache(long maxBytes, ToLongFunction<? super V> sizeEstimator) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+        this.sizeEstimator = Objects.requireNonNull(sizeEstimator, "sizeEstimator");
+    }
+
+    /**
+     * Cached result of {@code query} at {@code version}, computed by {@code loader} on a miss.
+     * A failing load is not cached and fails every request that waited for it.
+     */
+    public V get(long version, Q query, Function<? super Q, ? extends V> loader) {
+        Key<Q> key = new Key<>(version, Objects.requireNonNull(query, "query"));
+        V cached = cached(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        CompletableFuture<V> load = new CompletableFuture<>();
+        CompletableFuture<V> running = loading.putIfAbsent(key, load);
+        if (running != null) {
+            sharedLoads.increment();
+            return await(running);
+        }
+        try {
+            // the previous load of this key may have completed between the lookup and taking over loading
+            cached = cached(key);
+            if (cached != null) {
+                hits.increment();
+                load.complete(cached);
+                return cached;
+            }
+            misses.increment();
+            V value = Objects.requireNonNull(loader.apply(query), "loader returned null");
+            // estimated outside the cache lock, walking a large result would block every hit meanwhile
+            store(key, value, sizeEstimator.applyAsLong(value));
+            load.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    /**
+     * Drops every result computed for a version before {@code version}, later stores of such results are ignored.
+     */
+    public synchronized void invalidateBefore(long version) {
+        if (version <= minVersion) {
+            return;
+        }
+        minVersion = version;
+        Iterator<Map.Entry<Key<Q>, CachedResult<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key<Q>, CachedResult<V>> entry = iterator.next();
+            if (entry.getKey().version < version) {
+                bytes -= entry.getValue().bytes;
+                iterator.remove();
+                invalidations.increment();
+            }
+        }
+    }
+
+    public synchronized void invalidateAll() {
+        invalidations.add(entries.size());
+        entries.clear();
+        bytes = 0;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Requests that waited for a load of the same key already running.
+     */
+    public long sharedLoadCount() {
+        return sharedLoads.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public long invalidationCount() {
+        return invalidations.sum();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long estimatedBytes() {
+        return bytes;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "VersionedResultCache{" +
+            "size=" + size() +
+            ", estimatedBytes=" + estimatedBytes() +
+            ", maxBytes=" + maxBytes +
+            ", hits=" + hitCount() +
+            ", misses=" + missCount() +
+            ", sharedLoads=" + sharedLoadCount() +
+            ", evictions=" + evictionCount() +
+            ", invalidations=" + invalidationCount() +
+            '}';
+    }
+
+    private synchronized V cached(Key<Q> key) {
+        CachedResult<V> result = entries.get(key);
+        return result != null ? result.value : null;
+    }
+
+    private synchronized void store(Key<Q> key, V value, long size) {
+        if (key.version < minVersion || size > maxBytes) {
+            return;
+        }
+        CachedResult<V> previous = entries.put(key, new CachedResult<>(value, size));
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        bytes += size;
+        Iterator<CachedResult<V>> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().bytes;
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static <V> V await(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Key<Q> {
+
+        final long version;
+        final Q query;
+
+        Key(long version, Q query) {
+            this.version = version;
+            this.query = query;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Key<?> key = (Key<?>) o;
+
+            return version == key.version && query.equals(key.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(version) + query.hashCode();
+        }
+    }
+
+    private static final class CachedResult<V> {
+
+        final V value;
+        final long bytes;
+
+        CachedResult(V value, long bytes) {
+            this.value = value;
+            this.bytes = bytes;
+        }
+    }
+}
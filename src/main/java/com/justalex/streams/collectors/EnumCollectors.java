@@ -0,0 +1,131 @@
+package com.justalex.streams.collectors;
+
+import java.util.EnumMap;
+import java.util.IntSummaryStatistics;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * Grouping collectors for enum keys that accumulate into arrays indexed by {@link Enum#ordinal()}.
+ * The per element path is an array write, the {@link EnumMap} is only built by the finisher.
+ * Like {@code groupingBy} the resulting map only holds keys that had at least one element.
+ */
+public final class EnumCollectors {
+
+    private EnumCollectors() {
+    }
+
+    public static <T, K extends Enum<K>> Collector<T, long[], EnumMap<K, Long>> countingByEnum(
+        Class<K> enumClass, Function<? super T, ? extends K> classifier) {
+        K[] keys = keysOf(enumClass);
+        return Collector.of(
+            () -> new long[keys.length],
+            (counts, element) -> counts[ordinalOf(classifier, element)]++,
+            (left, right) -> {
+                for (int i = 0; i < left.length; i++) {
+                    left[i] += right[i];
+                }
+                return left;
+            },
+            counts -> {
+                EnumMap<K, Long> result = new EnumMap<>(enumClass);
+                for (int i = 0; i < keys.length; i++) {
+                    if (counts[i] != 0) {
+                        result.put(keys[i], counts[i]);
+                    }
+                }
+                return result;
+            },
+            Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T, K extends Enum<K>> Collector<T, IntSums, EnumMap<K, Integer>> summingIntByEnum(
+        Class<K> enumClass, Function<? super T, ? extends K> classifier, ToIntFunction<? super T> mapper) {
+        K[] keys = keysOf(enumClass);
+        return Collector.of(
+            () -> new IntSums(keys.length),
+            (sums, element) -> sums.add(ordinalOf(classifier, element), mapper.applyAsInt(element)),
+            IntSums::merge,
+            sums -> {
+                EnumMap<K, Integer> result = new EnumMap<>(enumClass);
+                for (int i = 0; i < keys.length; i++) {
+                    if (sums.counts[i] != 0) {
+                        result.put(keys[i], sums.sums[i]);
+                    }
+                }
+                return result;
+            },
+            Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T, K extends Enum<K>> Collector<T, IntSummaryStatistics[], EnumMap<K, IntSummaryStatistics>> summarizingIntByEnum(
+        Class<K> enumClass, Function<? super T, ? extends K> classifier, ToIntFunction<? super T> mapper) {
+        K[] keys = keysOf(enumClass);
+        return Collector.of(
+            () -> new IntSummaryStatistics[keys.length],
+            (stats, element) -> {
+                int ordinal = ordinalOf(classifier, element);
+                if (stats[ordinal] == null) {
+                    stats[ordinal] = new IntSummaryStatistics();
+                }
+                stats[ordinal].accept(mapper.applyAsInt(element));
+            },
+            (left, right) -> {
+                for (int i = 0; i < left.length; i++) {
+                    if (left[i] == null) {
+                        left[i] = right[i];
+                    } else if (right[i] != null) {
+                        left[i].combine(right[i]);
+                    }
+                }
+                return left;
+            },
+            stats -> {
+                EnumMap<K, IntSummaryStatistics> result = new EnumMap<>(enumClass);
+                for (int i = 0; i < keys.length; i++) {
+                    if (stats[i] != null) {
+                        result.put(keys[i], stats[i]);
+                    }
+                }
+                return result;
+            },
+            Collector.Characteristics.UNORDERED);
+    }
+
+    private static <K extends Enum<K>> K[] keysOf(Class<K> enumClass) {
+        return Objects.requireNonNull(enumClass, "enumClass").getEnumConstants();
+    }
+
+    private static <T, K extends Enum<K>> int ordinalOf(Function<? super T, ? extends K> classifier, T element) {
+        return Objects.requireNonNull(classifier.apply(element), "element cannot be mapped to a null key").ordinal();
+    }
+
+    /**
+     * Accumulation container of {@link #summingIntByEnum}, keeps counts to tell empty keys from zero sums.
+     */
+    public static final class IntSums {
+
+        final int[] sums;
+        final long[] counts;
+
+        IntSums(int size) {
+            sums = new int[size];
+            counts = new long[size];
+        }
+
+        void add(int ordinal, int value) {
+            sums[ordinal] += value;
+            counts[ordinal]++;
+        }
+
+        IntSums merge(IntSums other) {
+            for (int i = 0; i < sums.length; i++) {
+                sums[i] += other.sums[i];
+                counts[i] += other.counts[i];
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.justalex.streams.collectors;
+
+final class IntHashing {
+
+    private IntHashing() {
+    }
+
+    /**
+     * Spreads consecutive keys (ages, ids) across the table so linear probing doesn't cluster.
+     */
+    static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
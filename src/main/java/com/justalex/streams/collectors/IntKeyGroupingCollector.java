@@ -0,0 +1,89 @@
+package com.justalex.streams.collectors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * {@code groupingBy} for primitive {@code int} keys such as {@code User::getAge}.
+ * Groups are kept in open addressing maps keyed by the raw {@code int}, so nothing is boxed per element;
+ * keys are only boxed once per distinct value when the resulting {@link Map} is built by the finisher.
+ */
+public final class IntKeyGroupingCollector {
+
+    private IntKeyGroupingCollector() {
+    }
+
+    public static <T> Collector<T, ?, Map<Integer, Long>> counting(ToIntFunction<? super T> classifier) {
+        return Collector.of(
+            IntLongHashMap::new,
+            (map, element) -> map.addTo(classifier.applyAsInt(element), 1L),
+            IntLongHashMap::merge,
+            map -> toMap(map, Long::valueOf),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, Map<Integer, Integer>> summingInt(ToIntFunction<? super T> classifier, ToIntFunction<? super T> mapper) {
+        return Collector.of(
+            IntLongHashMap::new,
+            (map, element) -> map.addTo(classifier.applyAsInt(element), mapper.applyAsInt(element)),
+            IntLongHashMap::merge,
+            // same overflow behaviour as Collectors.summingInt, which sums into an int
+            map -> toMap(map, sum -> (int) sum),
+            Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, Map<Integer, List<T>>> toList(ToIntFunction<? super T> classifier) {
+        Supplier<List<T>> listSupplier = ArrayList::new;
+        return Collector.<T, IntObjectHashMap<List<T>>, Map<Integer, List<T>>>of(
+            IntObjectHashMap::new,
+            (map, element) -> map.computeIfAbsent(classifier.applyAsInt(element), listSupplier).add(element),
+            (left, right) -> left.merge(right, (leftList, rightList) -> {
+                leftList.addAll(rightList);
+                return leftList;
+            }),
+            map -> toMap(map, list -> list));
+    }
+
+    public static <T, A, D> Collector<T, ?, Map<Integer, D>> groupingBy(ToIntFunction<? super T> classifier,
+                                                                        Collector<? super T, A, D> downstream) {
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        return Collector.<T, IntObjectHashMap<A>, Map<Integer, D>>of(
+            IntObjectHashMap::new,
+            (map, element) -> downstreamAccumulator.accept(map.computeIfAbsent(classifier.applyAsInt(element), downstreamSupplier), element),
+            (left, right) -> left.merge(right, downstream.combiner()),
+            map -> toMap(map, downstream.finisher()));
+    }
+
+    private static <R> Map<Integer, R> toMap(IntLongHashMap map, LongFunction<R> valueMapper) {
+        Map<Integer, R> result = new HashMap<>(capacityFor(map.size()));
+        for (int slot = 0; slot < map.capacity(); slot++) {
+            if (map.isUsed(slot)) {
+                result.put(map.keyAt(slot), valueMapper.apply(map.valueAt(slot)));
+            }
+        }
+        return result;
+    }
+
+    private static <V, R> Map<Integer, R> toMap(IntObjectHashMap<V> map, Function<? super V, R> valueMapper) {
+        Map<Integer, R> result = new HashMap<>(capacityFor(map.size()));
+        for (int slot = 0; slot < map.capacity(); slot++) {
+            if (map.isUsed(slot)) {
+                result.put(map.keyAt(slot), valueMapper.apply(map.valueAt(slot)));
+            }
+        }
+        return result;
+    }
+
+    private static int capacityFor(int size) {
+        return (int) (size / 0.75f) + 1;
+    }
+}
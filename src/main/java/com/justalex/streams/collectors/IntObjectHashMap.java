@@ -0,0 +1,108 @@
+package com.justalex.streams.collectors;
+
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Open addressing {@code int -> V} map with linear probing, keys are never boxed.
+ */
+final class IntObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private Object[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    IntObjectHashMap() {
+        allocate(DEFAULT_CAPACITY);
+    }
+
+    V computeIfAbsent(int key, Supplier<? extends V> supplier) {
+        int slot = slotOf(key);
+        if (used[slot]) {
+            return valueAt(slot);
+        }
+        V value = supplier.get();
+        insert(slot, key, value);
+        return value;
+    }
+
+    IntObjectHashMap<V> merge(IntObjectHashMap<V> other, BinaryOperator<V> combiner) {
+        for (int slot = 0; slot < other.used.length; slot++) {
+            if (!other.used[slot]) {
+                continue;
+            }
+            int key = other.keys[slot];
+            int ownSlot = slotOf(key);
+            if (used[ownSlot]) {
+                values[ownSlot] = combiner.apply(valueAt(ownSlot), other.valueAt(slot));
+            } else {
+                insert(ownSlot, key, other.valueAt(slot));
+            }
+        }
+        return this;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int capacity() {
+        return used.length;
+    }
+
+    boolean isUsed(int slot) {
+        return used[slot];
+    }
+
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    @SuppressWarnings("unchecked")
+    V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    private int slotOf(int key) {
+        int slot = IntHashing.mix(key) & mask;
+        while (used[slot] && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void insert(int slot, int key, V value) {
+        used[slot] = true;
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > (mask + 1) >> 1) {
+            rehash();
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldUsed.length << 1);
+        for (int slot = 0; slot < oldUsed.length; slot++) {
+            if (oldUsed[slot]) {
+                int newSlot = slotOf(oldKeys[slot]);
+                used[newSlot] = true;
+                keys[newSlot] = oldKeys[slot];
+                values[newSlot] = oldValues[slot];
+            }
+        }
+    }
+}
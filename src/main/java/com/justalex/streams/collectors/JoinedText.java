@@ -0,0 +1,152 @@
+package com.justalex.streams.collectors;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Joined elements that were not copied into one string yet, result of {@link JoiningCollectors#joiningRope}.
+ * Elements are kept by reference in a chain of chunks, so appending never copies characters
+ * and two partial results of a parallel stream are concatenated in constant time.
+ * The text is built or written out in one pass when it is needed.
+ */
+public final class JoinedText implements Iterable<CharSequence> {
+
+    private static final int FIRST_CHUNK = 16;
+    private static final int MAX_CHUNK = 1 << 16;
+
+    private final String delimiter;
+    private Chunk head;
+    private Chunk tail;
+    private long elementCount;
+    private long elementsLength;
+
+    JoinedText(CharSequence delimiter, int expectedCount) {
+        this.delimiter = delimiter.toString();
+        this.head = this.tail = new Chunk(Math.max(1, Math.min(expectedCount, MAX_CHUNK)));
+    }
+
+    void add(CharSequence element) {
+        String value = String.valueOf(element);
+        if (tail.count == tail.elements.length) {
+            Chunk next = new Chunk(Math.min(tail.elements.length * 2, MAX_CHUNK));
+            tail.next = next;
+            tail = next;
+        }
+        tail.elements[tail.count++] = value;
+        elementCount++;
+        elementsLength += value.length();
+    }
+
+    JoinedText concat(JoinedText other) {
+        if (other.elementCount != 0) {
+            tail.next = other.head;
+            tail = other.tail;
+            elementCount += other.elementCount;
+            elementsLength += other.elementsLength;
+        }
+        return this;
+    }
+
+    public long elementCount() {
+        return elementCount;
+    }
+
+    /**
+     * Number of chars of the joined text, delimiters included.
+     */
+    public long length() {
+        return elementsLength + Math.max(0, elementCount - 1) * delimiter.length();
+    }
+
+    /**
+     * Rough retained size in bytes: the chunk chain and every element, elements shared with other objects included.
+     */
+    public long estimatedBytes() {
+        long bytes = 48 + 24 + 16 + delimiter.length() * 2L;
+        for (Chunk chunk = head; chunk != null; chunk = chunk.next) {
+            bytes += 24 + 16 + chunk.elements.length * 4L;
+        }
+        return bytes + elementCount * (24 + 16) + elementsLength * 2;
+    }
+
+    /**
+     * Writes the joined text, the only buffering is the one of {@code out}.
+     */
+    public <A extends Appendable> A writeTo(A out) {
+        try {
+            boolean first = true;
+            for (CharSequence element : this) {
+                if (!first) {
+                    out.append(delimiter);
+                }
+                out.append(element);
+                first = false;
+            }
+            return out;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes the joined text UTF-8 encoded through a fixed size buffer.
+     *
+     * @return the number of bytes written
+     */
+    public long writeTo(WritableByteChannel channel) {
+        Utf8ChannelSink sink = new Utf8ChannelSink(channel);
+        writeTo(sink);
+        sink.flush();
+        return sink.bytesWritten();
+    }
+
+    /**
+     * The joined text in one string, sized exactly instead of grown by copying.
+     */
+    @Override
+    public String toString() {
+        if (length() > Integer.MAX_VALUE - 8) {
+            throw new OutOfMemoryError("Joined text of " + length() + " chars doesn't fit into a String");
+        }
+        return String.join(delimiter, this);
+    }
+
+    @Override
+    public Iterator<CharSequence> iterator() {
+        return new Iterator<CharSequence>() {
+            private Chunk chunk = head;
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                while (chunk != null && index == chunk.count) {
+                    chunk = chunk.next;
+                    index = 0;
+                }
+                return chunk != null;
+            }
+
+            @Override
+            public CharSequence next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return chunk.elements[index++];
+            }
+        };
+    }
+
+    private static final class Chunk {
+
+        final String[] elements;
+        int count;
+        Chunk next;
+
+        Chunk(int capacity) {
+            elements = new String[capacity];
+        }
+    }
+}
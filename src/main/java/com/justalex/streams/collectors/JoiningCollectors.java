@@ -0,0 +1,134 @@
+package com.justalex.streams.collectors;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collector;
+
+/**
+ * Alternatives to {@code Collectors.joining} for large outputs such as all names of one gender.
+ * {@link #joining} and {@link #joiningRope} keep the elements by reference until the end, concatenate partial
+ * results of parallel streams without copying and build the final string at its exact size.
+ * {@link #joiningTo} writes each element straight to a {@link Appendable} or a channel, holding nothing but a buffer.
+ */
+public final class JoiningCollectors {
+
+    private JoiningCollectors() {
+    }
+
+    /**
+     * Same result as {@code Collectors.joining(delimiter)}.
+     *
+     * @param expectedCount expected number of elements, sizes the first chunk of element references
+     */
+    public static Collector<CharSequence, ?, String> joining(CharSequence delimiter, int expectedCount) {
+        Objects.requireNonNull(delimiter, "delimiter");
+        return Collector.of(
+            () -> new JoinedText(delimiter, expectedCount),
+            JoinedText::add,
+            JoinedText::concat,
+            JoinedText::toString);
+    }
+
+    /**
+     * Joined elements that can be written out without ever building the whole string, e.g.
+     * {@code groupingBy(User::getGender, mapping(User::getName, joiningRope(", ", 1024)))} and then
+     * {@link JoinedText#writeTo(WritableByteChannel)} per gender.
+     */
+    public static Collector<CharSequence, ?, JoinedText> joiningRope(CharSequence delimiter, int expectedCount) {
+        Objects.requireNonNull(delimiter, "delimiter");
+        return Collector.of(
+            () -> new JoinedText(delimiter, expectedCount),
+            JoinedText::add,
+            JoinedText::concat);
+    }
+
+    /**
+     * Appends the joined elements to {@code sink} as they arrive, flushing it at the end if it is {@link Flushable}.
+     * Writes happen in encounter order into a single container, so the collector can be used once and only
+     * by a sequential stream: a second container, as made by a parallel stream or a grouping collector,
+     * fails right away and stops the writes of the first one.
+     */
+    public static <A extends Appendable> Collector<CharSequence, ?, A> joiningTo(A sink, CharSequence delimiter) {
+        Objects.requireNonNull(sink, "sink");
+        Objects.requireNonNull(delimiter, "delimiter");
+        AtomicInteger containers = new AtomicInteger();
+        return Collector.<CharSequence, SinkWriter<A>, A>of(
+            () -> new SinkWriter<>(sink, delimiter, containers),
+            SinkWriter::add,
+            JoiningCollectors::parallelUnsupported,
+            SinkWriter::finish);
+    }
+
+    /**
+     * Writes the joined elements UTF-8 encoded to {@code channel} through a fixed size buffer, the channel is left open.
+     * Like {@link #joiningTo(Appendable, CharSequence)} only for sequential streams.
+     *
+     * @return the number of bytes written
+     */
+    public static Collector<CharSequence, ?, Long> joiningTo(WritableByteChannel channel, CharSequence delimiter) {
+        Objects.requireNonNull(channel, "channel");
+        Objects.requireNonNull(delimiter, "delimiter");
+        AtomicInteger containers = new AtomicInteger();
+        return Collector.<CharSequence, SinkWriter<Utf8ChannelSink>, Long>of(
+            () -> new SinkWriter<>(new Utf8ChannelSink(channel), delimiter, containers),
+            SinkWriter::add,
+            JoiningCollectors::parallelUnsupported,
+            writer -> writer.finish().bytesWritten());
+    }
+
+    private static <A> A parallelUnsupported(A left, A right) {
+        throw singleContainerOnly();
+    }
+
+    private static UnsupportedOperationException singleContainerOnly() {
+        return new UnsupportedOperationException("joiningTo writes to a single sink in encounter order, "
+            + "it can't be used with parallel streams, as a downstream collector or more than once");
+    }
+
+    private static final class SinkWriter<A extends Appendable> {
+
+        private final A sink;
+        private final CharSequence delimiter;
+        private final AtomicInteger containers;
+        private boolean first = true;
+
+        SinkWriter(A sink, CharSequence delimiter, AtomicInteger containers) {
+            if (containers.incrementAndGet() > 1) {
+                throw singleContainerOnly();
+            }
+            this.sink = sink;
+            this.delimiter = delimiter;
+            this.containers = containers;
+        }
+
+        void add(CharSequence element) {
+            if (containers.get() > 1) {
+                throw singleContainerOnly();
+            }
+            try {
+                if (!first) {
+                    sink.append(delimiter);
+                }
+                sink.append(element);
+                first = false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        A finish() {
+            if (sink instanceof Flushable) {
+                try {
+                    ((Flushable) sink).flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            return sink;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.justalex.streams.collectors;
+
+import com.justalex.streams.users.NameAge;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collector;
+
+/**
+ * {@code groupingBy(user -> new NameAge(user.getName(), user.getAge()))} that only allocates a {@link NameAge}
+ * when a new group is created. Existing groups are found through a {@link NameAge.Probe} reused by each container.
+ */
+public final class NameAgeGroupingCollector {
+
+    private NameAgeGroupingCollector() {
+    }
+
+    public static <T> Collector<T, ?, Map<NameAge, List<T>>> groupingByNameAge(Function<? super T, String> nameMapper,
+                                                                           ToIntFunction<? super T> ageMapper) {
+        return groupingByNameAge(nameMapper, ageMapper, Collector.<T, List<T>>of(ArrayList::new, List::add, (left, right) -> {
+            left.addAll(right);
+            return left;
+        }));
+    }
+
+    public static <T, A, D> Collector<T, ?, Map<NameAge, D>> groupingByNameAge(Function<? super T, String> nameMapper,
+                                                                           ToIntFunction<? super T> ageMapper,
+                                                                           Collector<? super T, A, D> downstream) {
+        return groupingByNameAge(nameMapper, ageMapper, null, downstream);
+    }
+
+    /**
+     * Group keys are taken from {@code interner}, so results of several collections share equal keys.
+     */
+    public static <T, A, D> Collector<T, ?, Map<NameAge, D>> groupingByNameAge(Function<? super T, String> nameMapper,
+                                                                           ToIntFunction<? super T> ageMapper,
+                                                                           NameAge.Interner interner,
+                                                                           Collector<? super T, A, D> downstream) {
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        return Collector.<T, Groups<A>, Map<NameAge, D>>of(
+            () -> new Groups<>(interner),
+            (groups, element) -> downstreamAccumulator.accept(groups.bucket(nameMapper.apply(element), ageMapper.applyAsInt(element), downstreamSupplier), element),
+            (left, right) -> {
+                right.buckets.forEach((key, container) -> left.buckets.merge(key, container, downstreamCombiner));
+                return left;
+            },
+            groups -> {
+                Map<NameAge, D> result = new HashMap<>(groups.buckets.size() * 4 / 3 + 1);
+                groups.buckets.forEach((key, container) -> result.put(key, downstreamFinisher.apply(container)));
+                return result;
+            });
+    }
+
+    private static final class Groups<A> {
+
+        final Map<NameAge, A> buckets = new HashMap<>();
+        final NameAge.Probe probe = new NameAge.Probe();
+        final NameAge.Interner interner;
+
+        Groups(NameAge.Interner interner) {
+            this.interner = interner;
+        }
+
+        A bucket(String name, int age, Supplier<A> supplier) {
+            A container = buckets.get(probe.set(name, age));
+            if (container == null) {
+                container = supplier.get();
+                buckets.put(interner != null ? interner.intern(name, age) : probe.toKey(), container);
+            }
+            return container;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.justalex.streams.collectors;
+
+import com.justalex.streams.sketches.CountMinSketch;
+import com.justalex.streams.sketches.HyperLogLog;
+import com.justalex.streams.sketches.TDigest;
+
+import java.util.LinkedHashMap;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collector;
+
+/**
+ * Approximate aggregations with fixed memory per container and mergeable combiners,
+ * usable on their own or as {@code groupingBy} downstreams, e.g.
+ * {@code groupingBy(User::getGender, quantiles(User::getAge))}.
+ */
+public final class SketchCollectors {
+
+    private SketchCollectors() {
+    }
+
+    /**
+     * Approximate {@code map(mapper).distinct().count()} with {@link HyperLogLog#DEFAULT_PRECISION}.
+     */
+    public static <T> Collector<T, ?, Long> distinctCount(Function<? super T, ?> mapper) {
+        return Collector.of(
+            HyperLogLog::new,
+            (sketch, element) -> sketch.add(mapper.apply(element)),
+            HyperLogLog::merge,
+            HyperLogLog::estimate,
+            Collector.Characteristics.UNORDERED);
+    }
+
+    public static <T> Collector<T, ?, HyperLogLog> hyperLogLog(Function<? super T, ?> mapper, int precision) {
+        return Collector.of(
+            () -> new HyperLogLog(precision),
+            (sketch, element) -> sketch.add(mapper.apply(element)),
+            HyperLogLog::merge,
+            Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Digest of the mapped values, query it with {@link TDigest#quantile(double)}.
+     */
+    public static <T> Collector<T, ?, TDigest> quantiles(ToDoubleFunction<? super T> mapper) {
+        return Collector.of(
+            TDigest::new,
+            (digest, element) -> digest.add(mapper.applyAsDouble(element)),
+            TDigest::merge,
+            Collector.Characteristics.UNORDERED, Collector.Characteristics.IDENTITY_FINISH);
+    }
+
+    /**
+     * Approximate {@code groupingBy(mapper, counting())} limited to the {@code k} most frequent values,
+     * most frequent first. Counts may be over-estimated, never under-estimated.
+     */
+    public static <T, V> Collector<T, ?, LinkedHashMap<V, Long>> heavyHitters(Function<? super T, ? extends V> mapper, int k) {
+        return Collector.<T, CountMinSketch<V>, LinkedHashMap<V, Long>>of(
+            () -> new CountMinSketch<>(k),
+            (sketch, element) -> sketch.add(mapper.apply(element)),
+            CountMinSketch::merge,
+            CountMinSketch::heavyHitters,
+            Collector.Characteristics.UNORDERED);
+    }
+}
@@ -0,0 +1,112 @@
+package com.justalex.streams.collectors;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+
+/**
+ * Drop-in replacement for {@code Collectors.groupingByConcurrent} that stays fast on low cardinality keys.
+ * The standard collector makes every thread update the same map bin and the same synchronized list when there
+ * are only a couple of keys. Here each thread accumulates into its own stripe, picked by thread id, and stripes
+ * are merged by the finisher. The collector is still {@code CONCURRENT} so parallel streams share one container.
+ */
+public final class StripedGroupingCollector {
+
+    private static final int STRIPES = stripeCount(Runtime.getRuntime().availableProcessors());
+
+    private StripedGroupingCollector() {
+    }
+
+    public static <T, K> Collector<T, ?, ConcurrentMap<K, List<T>>> groupingByConcurrent(Function<? super T, ? extends K> classifier) {
+        return groupingByConcurrent(classifier, Collector.<T, List<T>>of(ArrayList::new, List::add, (left, right) -> {
+            left.addAll(right);
+            return left;
+        }));
+    }
+
+    public static <T, K, A, D> Collector<T, ?, ConcurrentMap<K, D>> groupingByConcurrent(Function<? super T, ? extends K> classifier,
+                                                                                   Collector<? super T, A, D> downstream) {
+        Supplier<A> downstreamSupplier = downstream.supplier();
+        BiConsumer<A, ? super T> downstreamAccumulator = downstream.accumulator();
+        BinaryOperator<A> downstreamCombiner = downstream.combiner();
+        Function<A, D> downstreamFinisher = downstream.finisher();
+        return Collector.<T, Stripes<K, A>, ConcurrentMap<K, D>>of(
+            Stripes::new,
+            (stripes, element) -> {
+                K key = Objects.requireNonNull(classifier.apply(element), "element cannot be mapped to a null key");
+                Map<K, A> stripe = stripes.current();
+                synchronized (stripe) {
+                    A container = stripe.get(key);
+                    if (container == null) {
+                        container = downstreamSupplier.get();
+                        stripe.put(key, container);
+                    }
+                    downstreamAccumulator.accept(container, element);
+                }
+            },
+            (left, right) -> left.mergeAll(right, downstreamCombiner),
+            stripes -> {
+                Map<K, A> merged = stripes.mergeStripes(downstreamCombiner);
+                ConcurrentMap<K, D> result = new ConcurrentHashMap<>(merged.size() * 4 / 3 + 1);
+                merged.forEach((key, container) -> result.put(key, downstreamFinisher.apply(container)));
+                return result;
+            },
+            Collector.Characteristics.CONCURRENT,
+            Collector.Characteristics.UNORDERED);
+    }
+
+    private static int stripeCount(int processors) {
+        int stripes = 1;
+        while (stripes < processors * 4) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    private static final class Stripes<K, A> {
+
+        private final List<Map<K, A>> stripes = new ArrayList<>(STRIPES);
+
+        Stripes() {
+            for (int i = 0; i < STRIPES; i++) {
+                stripes.add(new HashMap<>());
+            }
+        }
+
+        Map<K, A> current() {
+            return stripes.get((int) Thread.currentThread().getId() & (STRIPES - 1));
+        }
+
+        Map<K, A> mergeStripes(BinaryOperator<A> combiner) {
+            Map<K, A> merged = stripes.get(0);
+            synchronized (merged) {
+                for (int i = 1; i < STRIPES; i++) {
+                    Map<K, A> stripe = stripes.get(i);
+                    synchronized (stripe) {
+                        stripe.forEach((key, container) -> merged.merge(key, container, combiner));
+                        stripe.clear();
+                    }
+                }
+            }
+            return merged;
+        }
+
+        Stripes<K, A> mergeAll(Stripes<K, A> other, BinaryOperator<A> combiner) {
+            Map<K, A> target = mergeStripes(combiner);
+            Map<K, A> source = other.mergeStripes(combiner);
+            synchronized (target) {
+                source.forEach((key, container) -> target.merge(key, container, combiner));
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.justalex.streams.collectors;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+/**
+ * The {@code k} greatest elements of a stream, kept in a bounded heap instead of sorting the whole stream.
+ * O(n log k) time and O(k) memory per container, containers of parallel splits are merged by offering
+ * one heap into the other. Order among equal elements is unspecified.
+ */
+public final class TopKCollectors {
+
+    private TopKCollectors() {
+    }
+
+    /**
+     * @return up to {@code k} greatest elements by {@code comparator}, greatest first
+     */
+    public static <T> Collector<T, ?, List<T>> topK(int k, Comparator<? super T> comparator) {
+        if (k < 0) {
+            throw new IllegalArgumentException("Negative k: " + k);
+        }
+        Objects.requireNonNull(comparator, "comparator");
+        return Collector.<T, BoundedHeap<T>, List<T>>of(
+            () -> new BoundedHeap<>(k, comparator),
+            BoundedHeap::offer,
+            BoundedHeap::merge,
+            BoundedHeap::toSortedList,
+            Collector.Characteristics.UNORDERED);
+    }
+
+    /**
+     * @return up to {@code k} least elements by {@code comparator}, least first
+     */
+    public static <T> Collector<T, ?, List<T>> bottomK(int k, Comparator<? super T> comparator) {
+        return topK(k, Collections.reverseOrder(comparator));
+    }
+
+    /**
+     * {@code groupingBy(classifier, topK(k, comparator))}, e.g. the 100 oldest users per gender.
+     */
+    public static <T, K> Collector<T, ?, Map<K, List<T>>> topKPerGroup(Function<? super T, ? extends K> classifier,
+                                                                      int k, Comparator<? super T> comparator) {
+        return Collectors.groupingBy(classifier, topK(k, comparator));
+    }
+
+    private static final class BoundedHeap<T> {
+
+        private final int k;
+        private final Comparator<? super T> comparator;
+        // least retained element on top, so it is the one evicted
+        private final PriorityQueue<T> heap;
+
+        BoundedHeap(int k, Comparator<? super T> comparator) {
+            this.k = k;
+            this.comparator = comparator;
+            this.heap = new PriorityQueue<>(Math.max(1, Math.min(k, 1024)), comparator);
+        }
+
+        void offer(T element) {
+            if (heap.size() < k) {
+                heap.add(element);
+            } else if (k > 0 && comparator.compare(element, heap.peek()) > 0) {
+                heap.poll();
+                heap.add(element);
+            }
+        }
+
+        BoundedHeap<T> merge(BoundedHeap<T> other) {
+            if (other.heap.size() > heap.size()) {
+                heap.forEach(other::offer);
+                return other;
+            }
+            other.heap.forEach(this::offer);
+            return this;
+        }
+
+        List<T> toSortedList() {
+            List<T> result = new ArrayList<>(heap);
+            result.sort(Collections.reverseOrder(comparator));
+            return result;
+        }
+    }
+}
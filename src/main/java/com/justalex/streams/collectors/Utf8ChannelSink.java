@@ -0,0 +1,87 @@
+package com.justalex.streams.collectors;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes appended text to UTF-8 into a fixed buffer that is written to the channel whenever it fills up.
+ * Lone surrogates are replaced like {@link String#getBytes} does.
+ */
+final class Utf8ChannelSink implements Appendable, Flushable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    private long bytesWritten;
+
+    Utf8ChannelSink(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    @Override
+    public Utf8ChannelSink append(CharSequence text) {
+        CharBuffer chars = CharBuffer.wrap(text == null ? "null" : text);
+        // every element is encoded as complete input, a surrogate pair is never split between two appends
+        while (true) {
+            CoderResult result = encoder.encode(chars, buffer, true);
+            if (result.isOverflow()) {
+                drain();
+            } else if (result.isUnderflow()) {
+                break;
+            } else {
+                throw new IllegalStateException("Can't encode " + result);
+            }
+        }
+        while (encoder.flush(buffer).isOverflow()) {
+            drain();
+        }
+        encoder.reset();
+        return this;
+    }
+
+    @Override
+    public Utf8ChannelSink append(CharSequence text, int start, int end) {
+        return append((text == null ? "null" : text).subSequence(start, end));
+    }
+
+    @Override
+    public Utf8ChannelSink append(char c) {
+        return append(String.valueOf(c));
+    }
+
+    /**
+     * Writes out the buffered bytes, the channel itself is left open.
+     */
+    @Override
+    public void flush() {
+        drain();
+    }
+
+    long bytesWritten() {
+        return bytesWritten;
+    }
+
+    private void drain() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                bytesWritten += channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,206 @@
+package com.justalex.streams.concurrent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Stream stages for blocking, I/O bound work such as enriching each user from a local store.
+ * Parallel streams run such work on the common ForkJoinPool, whose few workers then just sit blocked;
+ * here every element gets its own thread, virtual when the runtime has them (Java 21+), platform threads otherwise.
+ */
+public final class ConcurrentStages {
+
+    private static final Callable<ExecutorService> VIRTUAL_THREAD_EXECUTOR = virtualThreadExecutorFactory();
+
+    private ConcurrentStages() {
+    }
+
+    /**
+     * Lazily maps the source with up to {@code maxInFlight} concurrent calls of {@code mapper}.
+     * The source is only pulled when a slot frees up, so a slow mapper applies backpressure to it.
+     * The result is a sequential stream that can be collected with any collector.
+     * <p>
+     * A failing mapper cancels the calls still running and surfaces as a {@link CompletionException}.
+     * Closing the stream (or abandoning it through a short-circuiting operation followed by close) cancels outstanding calls.
+     *
+     * @param ordered whether results keep the encounter order of the source, otherwise they come in completion order
+     */
+    public static <T, R> Stream<R> mapConcurrent(Stream<T> source, Function<? super T, ? extends R> mapper, int maxInFlight, boolean ordered) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        Objects.requireNonNull(mapper, "mapper");
+        ExecutorService executor = newExecutor(maxInFlight);
+        Iterator<R> results = ordered
+            ? new OrderedResults<>(source.iterator(), mapper, maxInFlight, executor)
+            : new UnorderedResults<>(source.iterator(), mapper, maxInFlight, executor);
+        int characteristics = ordered ? Spliterator.ORDERED : 0;
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(results, characteristics), false)
+            .onClose(executor::shutdownNow)
+            .onClose(source::close);
+    }
+
+    public static <T, R> Stream<R> mapConcurrent(Stream<T> source, Function<? super T, ? extends R> mapper, int maxInFlight) {
+        return mapConcurrent(source, mapper, maxInFlight, true);
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        return VIRTUAL_THREAD_EXECUTOR != null;
+    }
+
+    private static ExecutorService newExecutor(int maxInFlight) {
+        if (VIRTUAL_THREAD_EXECUTOR != null) {
+            try {
+                return VIRTUAL_THREAD_EXECUTOR.call();
+            } catch (Exception e) {
+                throw new IllegalStateException("Can't create a virtual thread executor", e);
+            }
+        }
+        ThreadFactory daemons = runnable -> {
+            Thread thread = new Thread(runnable, "map-concurrent");
+            thread.setDaemon(true);
+            return thread;
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxInFlight, maxInFlight, 10, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), daemons);
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static Callable<ExecutorService> virtualThreadExecutorFactory() {
+        try {
+            // looked up reflectively, the project is compiled for Java 17 where it doesn't exist
+            MethodHandle handle = MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                MethodType.methodType(ExecutorService.class));
+            return () -> {
+                try {
+                    return (ExecutorService) handle.invoke();
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+
+    private abstract static class Results<T, R> implements Iterator<R> {
+
+        final Iterator<T> source;
+        final Function<? super T, ? extends R> mapper;
+        final int maxInFlight;
+        final ExecutorService executor;
+
+        Results(Iterator<T> source, Function<? super T, ? extends R> mapper, int maxInFlight, ExecutorService executor) {
+            this.source = source;
+            this.mapper = mapper;
+            this.maxInFlight = maxInFlight;
+            this.executor = executor;
+        }
+
+        abstract int inFlight();
+
+        abstract void submit(Callable<R> task);
+
+        abstract Future<R> takeCompleted() throws InterruptedException;
+
+        @Override
+        public boolean hasNext() {
+            fill();
+            if (inFlight() == 0) {
+                executor.shutdown();
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public R next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            try {
+                return takeCompleted().get();
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting for a mapped element");
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                throw new CompletionException(e.getCause());
+            }
+        }
+
+        private void fill() {
+            while (inFlight() < maxInFlight && source.hasNext()) {
+                T element = source.next();
+                submit(() -> mapper.apply(element));
+            }
+        }
+    }
+
+    private static final class OrderedResults<T, R> extends Results<T, R> {
+
+        private final Queue<Future<R>> pending = new ArrayDeque<>();
+
+        OrderedResults(Iterator<T> source, Function<? super T, ? extends R> mapper, int maxInFlight, ExecutorService executor) {
+            super(source, mapper, maxInFlight, executor);
+        }
+
+        @Override
+        int inFlight() {
+            return pending.size();
+        }
+
+        @Override
+        void submit(Callable<R> task) {
+            pending.add(executor.submit(task));
+        }
+
+        @Override
+        Future<R> takeCompleted() {
+            return pending.remove();
+        }
+    }
+
+    private static final class UnorderedResults<T, R> extends Results<T, R> {
+
+        private final CompletionService<R> completion;
+        private int inFlight;
+
+        UnorderedResults(Iterator<T> source, Function<? super T, ? extends R> mapper, int maxInFlight, ExecutorService executor) {
+            super(source, mapper, maxInFlight, executor);
+            this.completion = new ExecutorCompletionService<>(executor);
+        }
+
+        @Override
+        int inFlight() {
+            return inFlight;
+        }
+
+        @Override
+        void submit(Callable<R> task) {
+            completion.submit(task);
+            inFlight++;
+        }
+
+        @Override
+        Future<R> takeCompleted() throws InterruptedException {
+            Future<R> completed = completion.take();
+            inFlight--;
+            return completed;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.justalex.streams.external;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.Map;
+
+public final class Codecs {
+
+    private static final Gender[] GENDERS = Gender.values();
+
+    /**
+     * UTF-8 bytes prefixed with their length, {@code null} included; unlike {@link DataOutput#writeUTF}
+     * there is no 64KB limit.
+     */
+    public static final Codec<String> STRING = new Codec<String>() {
+        @Override
+        public void write(DataOutput out, String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        @Override
+        public String read(DataInput in) throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    };
+
+    public static final Codec<Integer> INTEGER = new Codec<Integer>() {
+        @Override
+        public void write(DataOutput out, Integer value) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    public static final Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public void write(DataOutput out, Long value) throws IOException {
+            out.writeLong(value);
+        }
+
+        @Override
+        public Long read(DataInput in) throws IOException {
+            return in.readLong();
+        }
+    };
+
+    public static final Codec<Gender> GENDER = new Codec<Gender>() {
+        @Override
+        public void write(DataOutput out, Gender value) throws IOException {
+            out.writeByte(value == null ? -1 : value.ordinal());
+        }
+
+        @Override
+        public Gender read(DataInput in) throws IOException {
+            byte ordinal = in.readByte();
+            return ordinal < 0 ? null : GENDERS[ordinal];
+        }
+    };
+
+    public static final Codec<User> USER = new Codec<User>() {
+        @Override
+        public void write(DataOutput out, User user) throws IOException {
+            STRING.write(out, user.getName());
+            out.writeInt(user.getAge());
+            GENDER.write(out, user.getGender());
+        }
+
+        @Override
+        public User read(DataInput in) throws IOException {
+            String name = STRING.read(in);
+            return new User(name, in.readInt(), GENDER.read(in));
+        }
+    };
+
+    private Codecs() {
+    }
+
+    public static <K, V> Codec<Map.Entry<K, V>> entry(Codec<K> keyCodec, Codec<V> valueCodec) {
+        return new Codec<Map.Entry<K, V>>() {
+            @Override
+            public void write(DataOutput out, Map.Entry<K, V> entry) throws IOException {
+                keyCodec.write(out, entry.getKey());
+                valueCodec.write(out, entry.getValue());
+            }
+
+            @Override
+            public Map.Entry<K, V> read(DataInput in) throws IOException {
+                K key = keyCodec.read(in);
+                return new AbstractMap.SimpleImmutableEntry<>(key, valueCodec.read(in));
+            }
+        };
+    }
+}
@@ -0,0 +1,217 @@
+package com.justalex.streams.external;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@code groupingBy} for inputs whose groups don't fit in the heap. At most {@code maxElementsInMemory}
+ * elements are held per container; past that every held element is hash-partitioned by key into spill files.
+ * The finisher returns a lazy stream of groups that loads one partition at a time (about {@code 1/partitions} of the
+ * data), so memory stays bounded by the budget and the largest partition instead of the whole input.
+ * <p>
+ * The returned stream owns the spill files, close it (try-with-resources) to delete files that were not consumed.
+ * Per key the encounter order of elements is kept, the order of the groups is unspecified.
+ */
+public final class ExternalGroupingCollector {
+
+    public static final int DEFAULT_PARTITIONS = 64;
+
+    private ExternalGroupingCollector() {
+    }
+
+    public static <T, K> Collector<T, ?, Stream<Map.Entry<K, List<T>>>> groupingBy(
+        Function<? super T, ? extends K> classifier, Codec<K> keyCodec, Codec<T> elementCodec,
+        int maxElementsInMemory, Path spillDirectory) {
+        return groupingBy(classifier, Collectors.toList(), keyCodec, elementCodec, maxElementsInMemory, spillDirectory);
+    }
+
+    /**
+     * @param downstream applied to each group once its partition is loaded back,
+     *                   e.g. {@code groupingBy(User::getGender)} for {@code groupingBy(User::getName, groupingBy(User::getGender))}
+     */
+    public static <T, K, D> Collector<T, ?, Stream<Map.Entry<K, D>>> groupingBy(
+        Function<? super T, ? extends K> classifier, Collector<? super T, ?, D> downstream,
+        Codec<K> keyCodec, Codec<T> elementCodec, int maxElementsInMemory, Path spillDirectory) {
+        if (maxElementsInMemory < 1) {
+            throw new IllegalArgumentException("Memory budget must allow at least one element: " + maxElementsInMemory);
+        }
+        Codec<Map.Entry<K, T>> recordCodec = Codecs.entry(keyCodec, elementCodec);
+        return Collector.<T, Partitions<K, T>, Stream<Map.Entry<K, D>>>of(
+            () -> new Partitions<>(recordCodec, DEFAULT_PARTITIONS, maxElementsInMemory, spillDirectory),
+            (partitions, element) -> partitions.add(classifier, element),
+            Partitions::merge,
+            partitions -> partitions.groups().map(group -> new AbstractMap.SimpleImmutableEntry<>(group.getKey(), collect(group.getValue(), downstream))));
+    }
+
+    private static <T, A, D> D collect(List<T> elements, Collector<? super T, A, D> downstream) {
+        A container = downstream.supplier().get();
+        BiConsumer<A, ? super T> accumulator = downstream.accumulator();
+        for (T element : elements) {
+            accumulator.accept(container, element);
+        }
+        return downstream.finisher().apply(container);
+    }
+
+    private static final class Partitions<K, T> {
+
+        private final Codec<Map.Entry<K, T>> recordCodec;
+        private final int maxElementsInMemory;
+        private final Path spillDirectory;
+        private final List<List<SpillFile<Map.Entry<K, T>>>> files;
+        private final List<SpillFile<Map.Entry<K, T>>> writers;
+        private Map<K, List<T>> memory = new LinkedHashMap<>();
+        private int inMemory;
+        private boolean spilled;
+
+        Partitions(Codec<Map.Entry<K, T>> recordCodec, int partitions, int maxElementsInMemory, Path spillDirectory) {
+            this.recordCodec = recordCodec;
+            this.maxElementsInMemory = maxElementsInMemory;
+            this.spillDirectory = spillDirectory;
+            this.files = new ArrayList<>(partitions);
+            for (int i = 0; i < partitions; i++) {
+                files.add(new ArrayList<>());
+            }
+            this.writers = new ArrayList<>(Collections.nCopies(partitions, null));
+        }
+
+        // a failing container deletes its files right away, one dropped by a failure elsewhere
+        // in the stream leaves them to the spill file cleaner
+        void add(Function<? super T, ? extends K> classifier, T element) {
+            try {
+                add(Objects.requireNonNull(classifier.apply(element), "element cannot be mapped to a null key"), element);
+            } catch (RuntimeException | Error e) {
+                deleteFiles();
+                throw e;
+            }
+        }
+
+        private void add(K key, T element) {
+            memory.computeIfAbsent(key, k -> new ArrayList<>()).add(element);
+            if (++inMemory > maxElementsInMemory) {
+                spill();
+            }
+        }
+
+        Partitions<K, T> merge(Partitions<K, T> other) {
+            try {
+                other.finishWriting();
+                if (other.spilled) {
+                    // everything of this container has to come before the adopted files
+                    spill();
+                    finishWriting();
+                    for (int i = 0; i < files.size(); i++) {
+                        files.get(i).addAll(other.files.get(i));
+                        other.files.get(i).clear();
+                    }
+                }
+                other.memory.forEach((key, elements) -> elements.forEach(element -> add(key, element)));
+                return this;
+            } catch (RuntimeException | Error e) {
+                deleteFiles();
+                other.deleteFiles();
+                throw e;
+            }
+        }
+
+        Stream<Map.Entry<K, List<T>>> groups() {
+            if (!spilled) {
+                Map<K, List<T>> groups = memory;
+                memory = new LinkedHashMap<>();
+                return groups.entrySet().stream();
+            }
+            try {
+                spill();
+                finishWriting();
+            } catch (RuntimeException | Error e) {
+                deleteFiles();
+                throw e;
+            }
+            Iterator<Map.Entry<K, List<T>>> iterator = new PartitionIterator();
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(this::deleteFiles);
+        }
+
+        private void spill() {
+            spilled = true;
+            memory.forEach((key, elements) -> {
+                int partition = partitionOf(key);
+                SpillFile<Map.Entry<K, T>> writer = writers.get(partition);
+                if (writer == null) {
+                    writer = new SpillFile<>(spillDirectory, recordCodec);
+                    writers.set(partition, writer);
+                    files.get(partition).add(writer);
+                }
+                for (T element : elements) {
+                    writer.write(new AbstractMap.SimpleImmutableEntry<>(key, element));
+                }
+            });
+            memory.clear();
+            inMemory = 0;
+        }
+
+        private int partitionOf(K key) {
+            int h = key.hashCode();
+            return Math.floorMod(h ^ (h >>> 16), files.size());
+        }
+
+        private void finishWriting() {
+            for (int i = 0; i < writers.size(); i++) {
+                if (writers.get(i) != null) {
+                    writers.get(i).finishWriting();
+                    writers.set(i, null);
+                }
+            }
+        }
+
+        private void deleteFiles() {
+            Collections.fill(writers, null);
+            files.forEach(partition -> {
+                partition.forEach(SpillFile::close);
+                partition.clear();
+            });
+        }
+
+        private final class PartitionIterator implements Iterator<Map.Entry<K, List<T>>> {
+
+            private int partition;
+            private Iterator<Map.Entry<K, List<T>>> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && partition < files.size()) {
+                    current = load(files.get(partition++)).entrySet().iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public Map.Entry<K, List<T>> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+
+            private Map<K, List<T>> load(List<SpillFile<Map.Entry<K, T>>> partitionFiles) {
+                Map<K, List<T>> groups = new LinkedHashMap<>();
+                for (SpillFile<Map.Entry<K, T>> file : partitionFiles) {
+                    try (SpillFile<Map.Entry<K, T>>.Reader reader = file.reader()) {
+                        while (reader.hasNext()) {
+                            Map.Entry<K, T> record = reader.next();
+                            groups.computeIfAbsent(record.getKey(), k -> new ArrayList<>()).add(record.getValue());
+                        }
+                    }
+                    file.close();
+                }
+                partitionFiles.clear();
+                return groups;
+            }
+        }
+    }
+}
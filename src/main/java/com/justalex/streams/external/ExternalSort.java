@@ -0,0 +1,209 @@
+package com.justalex.streams.external;
+
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * External merge sort: the input is cut into sorted runs of at most {@code maxElementsInMemory} elements
+ * written to disk, and the runs are merged lazily with a heap holding one element per run.
+ * Typical use is sorting map entries by value, e.g. {@code sorted(entries, Map.Entry.comparingByValue(), codec, ...)},
+ * and writing the result out as it streams instead of collecting it into a {@code LinkedHashMap}.
+ * <p>
+ * At most {@link #MAX_FAN_IN} runs are merged at once, each with an open file and a read buffer;
+ * more runs are first merged in groups into longer runs. Runs are deleted as soon as they are consumed,
+ * close the returned stream to delete run files that were not.
+ */
+public final class ExternalSort {
+
+    public static final int MAX_FAN_IN = 64;
+
+    private ExternalSort() {
+    }
+
+    public static <T> Stream<T> sorted(Stream<T> input, Comparator<? super T> comparator, Codec<T> codec,
+                                       int maxElementsInMemory, Path spillDirectory) {
+        if (maxElementsInMemory < 1) {
+            throw new IllegalArgumentException("Memory budget must allow at least one element: " + maxElementsInMemory);
+        }
+        List<SpillFile<T>> runs = new ArrayList<>();
+        List<T> buffer = new ArrayList<>();
+        // every run written so far is deleted if reading the input, writing a run or opening the merge fails
+        try {
+            Iterator<T> iterator = input.iterator();
+            while (iterator.hasNext()) {
+                buffer.add(iterator.next());
+                if (buffer.size() == maxElementsInMemory) {
+                    runs.add(writeRun(buffer, comparator, codec, spillDirectory));
+                    buffer.clear();
+                }
+            }
+            if (runs.isEmpty()) {
+                buffer.sort(comparator);
+                return buffer.stream();
+            }
+            if (!buffer.isEmpty()) {
+                runs.add(writeRun(buffer, comparator, codec, spillDirectory));
+                buffer.clear();
+            }
+            while (runs.size() > MAX_FAN_IN) {
+                runs = mergePass(runs, comparator, codec, spillDirectory);
+            }
+            MergeIterator<T> merge = new MergeIterator<>(runs, comparator);
+            return StreamSupport.stream(new MergeSpliterator<>(merge, comparator), false).onClose(merge::close);
+        } catch (RuntimeException | Error e) {
+            closeAll(runs);
+            throw e;
+        } finally {
+            input.close();
+        }
+    }
+
+    private static <T> SpillFile<T> writeRun(List<T> buffer, Comparator<? super T> comparator, Codec<T> codec, Path spillDirectory) {
+        buffer.sort(comparator);
+        SpillFile<T> run = new SpillFile<>(spillDirectory, codec);
+        try {
+            buffer.forEach(run::write);
+            run.finishWriting();
+        } catch (RuntimeException | Error e) {
+            run.close();
+            throw e;
+        }
+        return run;
+    }
+
+    /**
+     * Merges every {@link #MAX_FAN_IN} consecutive runs into one, which keeps the sort stable, deleting the inputs.
+     */
+    private static <T> List<SpillFile<T>> mergePass(List<SpillFile<T>> runs, Comparator<? super T> comparator,
+                                                    Codec<T> codec, Path spillDirectory) {
+        List<SpillFile<T>> merged = new ArrayList<>();
+        try {
+            for (int from = 0; from < runs.size(); from += MAX_FAN_IN) {
+                SpillFile<T> run = new SpillFile<>(spillDirectory, codec);
+                merged.add(run);
+                List<SpillFile<T>> group = new ArrayList<>(runs.subList(from, Math.min(from + MAX_FAN_IN, runs.size())));
+                MergeIterator<T> merge = new MergeIterator<>(group, comparator);
+                try {
+                    while (merge.hasNext()) {
+                        run.write(merge.next());
+                    }
+                    run.finishWriting();
+                } finally {
+                    merge.close();
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            closeAll(merged);
+            throw e;
+        }
+        return merged;
+    }
+
+    private static void closeAll(List<? extends SpillFile<?>> files) {
+        files.stream().filter(Objects::nonNull).forEach(SpillFile::close);
+    }
+
+    /**
+     * Reports the sort comparator so that a following {@code sorted()} by natural order isn't skipped
+     * for a stream sorted by another comparator.
+     */
+    private static final class MergeSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+
+        private final Iterator<T> merge;
+        private final Comparator<? super T> comparator;
+
+        MergeSpliterator(Iterator<T> merge, Comparator<? super T> comparator) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.SORTED);
+            this.merge = merge;
+            this.comparator = comparator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (!merge.hasNext()) {
+                return false;
+            }
+            action.accept(merge.next());
+            return true;
+        }
+
+        @Override
+        public Comparator<? super T> getComparator() {
+            return comparator == Comparator.naturalOrder() ? null : comparator;
+        }
+    }
+
+    private static final class MergeIterator<T> implements Iterator<T> {
+
+        private final List<SpillFile<T>> runs;
+        private final List<SpillFile<T>.Reader> readers = new ArrayList<>();
+        private final PriorityQueue<Head<T>> heads;
+
+        MergeIterator(List<SpillFile<T>> runs, Comparator<? super T> comparator) {
+            this.runs = runs;
+            // ties go to the earlier run, which keeps the sort stable
+            this.heads = new PriorityQueue<>(runs.size(), (a, b) -> {
+                int result = comparator.compare(a.value, b.value);
+                return result != 0 ? result : Integer.compare(a.run, b.run);
+            });
+            try {
+                for (int i = 0; i < runs.size(); i++) {
+                    readers.add(runs.get(i).reader());
+                    advance(i);
+                }
+            } catch (RuntimeException | Error e) {
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Head<T> head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            advance(head.run);
+            return head.value;
+        }
+
+        /**
+         * Queues the next element of the run, or closes and deletes the run once it is consumed.
+         */
+        private void advance(int run) {
+            SpillFile<T>.Reader reader = readers.get(run);
+            if (reader.hasNext()) {
+                heads.add(new Head<>(reader.next(), run));
+                return;
+            }
+            reader.close();
+            readers.set(run, null);
+            runs.get(run).close();
+            runs.set(run, null);
+        }
+
+        void close() {
+            readers.stream().filter(Objects::nonNull).forEach(SpillFile.Reader::close);
+            closeAll(runs);
+        }
+    }
+
+    private static final class Head<T> {
+
+        final T value;
+        final int run;
+
+        Head(T value, int run) {
+            this.value = value;
+            this.run = run;
+        }
+    }
+}
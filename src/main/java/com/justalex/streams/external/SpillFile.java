@@ -0,0 +1,148 @@
+package com.justalex.streams.external;
+
+import java.io.*;
+import java.lang.ref.Cleaner;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+/**
+ * Append-only temporary file of encoded records, read back once in write order and deleted.
+ * A spill file that becomes unreachable without being closed, e.g. in a container dropped by a failed stream,
+ * is deleted once it is garbage collected.
+ */
+final class SpillFile<T> implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    private final Path path;
+    private final Codec<T> codec;
+    private final Cleanup cleanup;
+    private final Cleaner.Cleanable cleanable;
+    private DataOutputStream out;
+    private long records;
+
+    SpillFile(Path directory, Codec<T> codec) {
+        this.codec = codec;
+        try {
+            this.path = Files.createTempFile(directory, "spill", ".bin");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.cleanup = new Cleanup(path);
+        this.cleanable = CLEANER.register(this, cleanup);
+        try {
+            this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), BUFFER_SIZE));
+        } catch (IOException e) {
+            cleanable.clean();
+            throw new UncheckedIOException(e);
+        }
+        cleanup.out = out;
+    }
+
+    void write(T record) {
+        try {
+            codec.write(out, record);
+            records++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    long records() {
+        return records;
+    }
+
+    void finishWriting() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+            out = null;
+            cleanup.out = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reader over all records, the file has to be finished first. Closing the reader doesn't delete the file.
+     */
+    Reader reader() {
+        finishWriting();
+        try {
+            return new Reader(new DataInputStream(new BufferedInputStream(Files.newInputStream(path), BUFFER_SIZE)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        out = null;
+        cleanable.clean();
+    }
+
+    /**
+     * Deletes the file, must not refer to the spill file so that it can become unreachable.
+     */
+    private static final class Cleanup implements Runnable {
+
+        private final Path path;
+        private volatile OutputStream out;
+
+        Cleanup(Path path) {
+            this.path = path;
+        }
+
+        @Override
+        public void run() {
+            try {
+                if (out != null) {
+                    out.close();
+                    out = null;
+                }
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    final class Reader implements Closeable {
+
+        private final DataInputStream in;
+        private long remaining = records;
+
+        private Reader(DataInputStream in) {
+            this.in = in;
+        }
+
+        boolean hasNext() {
+            return remaining > 0;
+        }
+
+        T next() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            try {
+                remaining--;
+                return codec.read(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.justalex.streams.incremental;
+
+import com.justalex.streams.users.User;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Per group count, sum, min, max and average of user ages, maintained from {@link UserChange}s.
+ * Count and sum are updated in O(1), min and max come from a retractable sorted multiset of ages in O(log n),
+ * so the cost follows the churn and not the number of users. Reads never scan.
+ */
+public class AgeSummaryView<K> implements Consumer<UserChange> {
+
+    private final Function<? super User, ? extends K> classifier;
+    private final Map<K, Group> groups = new HashMap<>();
+
+    AgeSummaryView(Function<? super User, ? extends K> classifier) {
+        this.classifier = classifier;
+    }
+
+    @Override
+    public synchronized void accept(UserChange change) {
+        if (change.getBefore() != null) {
+            retract(change.getBefore());
+        }
+        if (change.getAfter() != null) {
+            add(change.getAfter());
+        }
+    }
+
+    public synchronized Optional<AgeSummary> get(K key) {
+        Group group = groups.get(key);
+        return group == null ? Optional.empty() : Optional.of(group.summary());
+    }
+
+    public synchronized Map<K, AgeSummary> snapshot() {
+        Map<K, AgeSummary> result = new HashMap<>();
+        groups.forEach((key, group) -> result.put(key, group.summary()));
+        return result;
+    }
+
+    private void add(User user) {
+        groups.computeIfAbsent(classifier.apply(user), key -> new Group()).add(user.getAge());
+    }
+
+    private void retract(User user) {
+        K key = classifier.apply(user);
+        Group group = groups.get(key);
+        if (group == null) {
+            throw new IllegalStateException("Retracting a user that was never added: " + user);
+        }
+        if (group.retract(user.getAge())) {
+            groups.remove(key);
+        }
+    }
+
+    private static final class Group {
+
+        private long count;
+        private long sum;
+        private final TreeMap<Integer, Integer> ages = new TreeMap<>();
+
+        void add(int age) {
+            count++;
+            sum += age;
+            ages.merge(age, 1, Integer::sum);
+        }
+
+        /**
+         * @return whether the group became empty
+         */
+        boolean retract(int age) {
+            Integer occurrences = ages.get(age);
+            if (occurrences == null) {
+                throw new IllegalStateException("Retracting an age that was never added: " + age);
+            }
+            if (occurrences == 1) {
+                ages.remove(age);
+            } else {
+                ages.put(age, occurrences - 1);
+            }
+            count--;
+            sum -= age;
+            return count == 0;
+        }
+
+        AgeSummary summary() {
+            return new AgeSummary(count, sum, ages.firstKey(), ages.lastKey());
+        }
+    }
+
+    /**
+     * Immutable read of a group, same accessors as {@link IntSummaryStatistics}.
+     */
+    public static final class AgeSummary {
+
+        private final long count;
+        private final long sum;
+        private final int min;
+        private final int max;
+
+        AgeSummary(long count, long sum, int min, int max) {
+            this.count = count;
+            this.sum = sum;
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public int getMin() {
+            return min;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        public double getAverage() {
+            return (double) sum / count;
+        }
+
+        @Override
+        public String toString() {
+            return "AgeSummary{" +
+                "count=" + count +
+                ", sum=" + sum +
+                ", min=" + min +
+                ", average=" + getAverage() +
+                ", max=" + max +
+                '}';
+        }
+    }
+}
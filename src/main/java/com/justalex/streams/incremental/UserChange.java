@@ -0,0 +1,52 @@
+package com.justalex.streams.incremental;
+
+import com.justalex.streams.users.User;
+
+/**
+ * A delta published by {@link UserRepository}. {@code before} is {@code null} for inserts,
+ * {@code after} is {@code null} for deletes. Both are snapshots that are never modified.
+ */
+public class UserChange {
+
+    public enum Type {
+        INSERT, UPDATE, DELETE
+    }
+
+    private final Type type;
+    private final long id;
+    private final User before;
+    private final User after;
+
+    UserChange(Type type, long id, User before, User after) {
+        this.type = type;
+        this.id = id;
+        this.before = before;
+        this.after = after;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public User getBefore() {
+        return before;
+    }
+
+    public User getAfter() {
+        return after;
+    }
+
+    @Override
+    public String toString() {
+        return "UserChange{" +
+            "type=" + type +
+            ", id=" + id +
+            ", before=" + before +
+            ", after=" + after +
+            '}';
+    }
+}
@@ -0,0 +1,133 @@
+package com.justalex.streams.incremental;
+
+import com.justalex.streams.users.User;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Observable user store that publishes every insert, update and delete as a {@link UserChange}.
+ * The repository keeps its own read-only copies: users handed in and users returned by {@link #get} can be mutated freely,
+ * while the users carried by changes are the stored snapshots and reject mutation.
+ * Changes have to go through {@link #update} to be seen. Listeners are called synchronously under the repository lock.
+ */
+public class UserRepository {
+
+    private final Map<Long, UserSnapshot> users = new HashMap<>();
+    private final List<Consumer<? super UserChange>> listeners = new ArrayList<>();
+    private long nextId;
+    private long version;
+
+    public synchronized long insert(User user) {
+        long id = nextId++;
+        UserSnapshot after = UserSnapshot.of(user);
+        users.put(id, after);
+        publish(new UserChange(UserChange.Type.INSERT, id, null, after));
+        return id;
+    }
+
+    public synchronized void update(long id, User user) {
+        User before = existing(id);
+        UserSnapshot after = UserSnapshot.of(user);
+        users.put(id, after);
+        publish(new UserChange(UserChange.Type.UPDATE, id, before, after));
+    }
+
+    /**
+     * Applies the mutation to a copy of the stored user, e.g. {@code update(id, user -> user.setAge(30))}.
+     */
+    public synchronized void update(long id, Consumer<? super User> mutation) {
+        User changed = copy(existing(id));
+        mutation.accept(changed);
+        update(id, changed);
+    }
+
+    public synchronized boolean delete(long id) {
+        UserSnapshot before = users.remove(id);
+        if (before == null) {
+            return false;
+        }
+        publish(new UserChange(UserChange.Type.DELETE, id, before, null));
+        return true;
+    }
+
+    public synchronized Optional<User> get(long id) {
+        return Optional.ofNullable(users.get(id)).map(UserRepository::copy);
+    }
+
+    public synchronized int size() {
+        return users.size();
+    }
+
+    /**
+     * Number of changes made so far, two reads at the same version see the same users.
+     */
+    public synchronized long version() {
+        return version;
+    }
+
+    /**
+     * Runs {@code reader} over all users at a single version, changes wait until it returns.
+     * The collection and its users are read-only, the users are the stored snapshots and can be kept by the reader.
+     */
+    public synchronized <R> R read(Function<? super Collection<User>, ? extends R> reader) {
+        return reader.apply(Collections.unmodifiableCollection(users.values()));
+    }
+
+    /**
+     * Registers the listener and replays the current content to it as inserts, so it can build its state from scratch.
+     */
+    public synchronized void subscribe(Consumer<? super UserChange> listener) {
+        users.forEach((id, user) -> listener.accept(new UserChange(UserChange.Type.INSERT, id, null, user)));
+        listeners.add(listener);
+    }
+
+    public synchronized void unsubscribe(Consumer<? super UserChange> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Materialized {@code groupingBy(classifier, summarizingInt(User::getAge))} kept up to date with this repository.
+     */
+    public <K> AgeSummaryView<K> ageSummaryBy(Function<? super User, ? extends K> classifier) {
+        AgeSummaryView<K> view = new AgeSummaryView<>(classifier);
+        subscribe(view);
+        return view;
+    }
+
+    private UserSnapshot existing(long id) {
+        UserSnapshot user = users.get(id);
+        if (user == null) {
+            throw new NoSuchElementException("No user with id " + id);
+        }
+        return user;
+    }
+
+    /**
+     * The change is already applied when listeners run, so a failing listener doesn't stop the others from seeing it.
+     * The first failure is rethrown once all listeners were called, later ones are added to it as suppressed.
+     */
+    private void publish(UserChange change) {
+        version++;
+        RuntimeException failure = null;
+        for (Consumer<? super UserChange> listener : new ArrayList<>(listeners)) {
+            try {
+                listener.accept(change);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static User copy(User user) {
+        return new User(user.getName(), user.getAge(), user.getGender());
+    }
+}
@@ -0,0 +1,34 @@
+package com.justalex.streams.incremental;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+
+/**
+ * Immutable copy of a user as stored by {@link UserRepository}, safe to hand to listeners and readers.
+ * {@code equals}/{@code hashCode} are the ones of {@link User}.
+ */
+final class UserSnapshot extends User {
+
+    private UserSnapshot(User user) {
+        super(user.getName(), user.getAge(), user.getGender());
+    }
+
+    static UserSnapshot of(User user) {
+        return user instanceof UserSnapshot ? (UserSnapshot) user : new UserSnapshot(user);
+    }
+
+    @Override
+    public void setName(String name) {
+        throw new UnsupportedOperationException("Stored users are read-only, change them through UserRepository.update");
+    }
+
+    @Override
+    public void setAge(int age) {
+        throw new UnsupportedOperationException("Stored users are read-only, change them through UserRepository.update");
+    }
+
+    @Override
+    public void setGender(Gender gender) {
+        throw new UnsupportedOperationException("Stored users are read-only, change them through UserRepository.update");
+    }
+}
@@ -0,0 +1,249 @@
+package com.justalex.streams.index;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * User collection with secondary indexes: a hash index on name, a sorted index on age for range queries
+ * and a bitmap per {@link Gender}. Every index maps a value to a {@link BitSet} of row ids, so a {@link Query}
+ * over several properties is answered by intersecting bitmaps instead of scanning.
+ * <p>
+ * Users created by {@link #add(String, int, Gender)} keep the indexes in sync through their setters.
+ * Users added with {@link #add(User)} stay plain objects, call {@link #reindex(User)} after changing them.
+ * Row ids of removed users are reused by later adds, lowest first, so the rows and bitmaps stay as large as
+ * the most users held at once. Not thread safe.
+ */
+public class IndexedUserCollection {
+
+    private static final Gender[] GENDERS = Gender.values();
+
+    private final List<User> rows = new ArrayList<>();
+    private final Map<User, Integer> rowIds = new IdentityHashMap<>();
+    private final List<IndexedValues> indexed = new ArrayList<>();
+    private final BitSet live = new BitSet();
+
+    private final Map<String, BitSet> nameIndex = new HashMap<>();
+    private final NavigableMap<Integer, BitSet> ageIndex = new TreeMap<>();
+    private final BitSet[] genderIndex = new BitSet[GENDERS.length];
+
+    public IndexedUserCollection() {
+        for (int i = 0; i < genderIndex.length; i++) {
+            genderIndex[i] = new BitSet();
+        }
+    }
+
+    public IndexedUserCollection(Collection<User> users) {
+        this();
+        users.forEach(this::add);
+    }
+
+    /**
+     * Adds a user whose setters update the indexes.
+     */
+    public User add(String name, int age, Gender gender) {
+        TrackedUser user = new TrackedUser(name, age, gender);
+        add(user);
+        user.owner = this;
+        return user;
+    }
+
+    public void add(User user) {
+        if (rowIds.containsKey(user)) {
+            throw new IllegalArgumentException("User is already in the collection: " + user);
+        }
+        int row;
+        if (rowIds.size() < rows.size()) {
+            row = live.nextClearBit(0);
+            rows.set(row, user);
+        } else {
+            row = rows.size();
+            rows.add(user);
+            indexed.add(null);
+        }
+        rowIds.put(user, row);
+        live.set(row);
+        index(row, user);
+    }
+
+    public boolean remove(User user) {
+        Integer row = rowIds.remove(user);
+        if (row == null) {
+            return false;
+        }
+        unindex(row);
+        rows.set(row, null);
+        indexed.set(row, null);
+        live.clear(row);
+        if (user instanceof TrackedUser) {
+            ((TrackedUser) user).owner = null;
+        }
+        return true;
+    }
+
+    /**
+     * Brings the indexes up to date with the current state of a user that was changed outside of the collection.
+     */
+    public void reindex(User user) {
+        Integer row = rowIds.get(user);
+        if (row == null) {
+            throw new NoSuchElementException("User is not in the collection: " + user);
+        }
+        unindex(row);
+        index(row, user);
+    }
+
+    public int size() {
+        return rowIds.size();
+    }
+
+    /**
+     * Number of row ids in use or free for reuse, i.e. the size of the row storage.
+     */
+    public int rowCapacity() {
+        return rows.size();
+    }
+
+    public Stream<User> stream() {
+        return live.stream().mapToObj(rows::get);
+    }
+
+    public Query query() {
+        return new Query();
+    }
+
+    private void index(int row, User user) {
+        IndexedValues values = new IndexedValues(user.getName(), user.getAge(), user.getGender());
+        indexed.set(row, values);
+        nameIndex.computeIfAbsent(values.name, name -> new BitSet()).set(row);
+        ageIndex.computeIfAbsent(values.age, age -> new BitSet()).set(row);
+        if (values.gender != null) {
+            genderIndex[values.gender.ordinal()].set(row);
+        }
+    }
+
+    private void unindex(int row) {
+        IndexedValues values = indexed.get(row);
+        clear(nameIndex, values.name, row);
+        clear(ageIndex, values.age, row);
+        if (values.gender != null) {
+            genderIndex[values.gender.ordinal()].clear(row);
+        }
+    }
+
+    private static <K> void clear(Map<K, BitSet> index, K key, int row) {
+        BitSet rows = index.get(key);
+        rows.clear(row);
+        if (rows.isEmpty()) {
+            index.remove(key);
+        }
+    }
+
+    /**
+     * Conjunction of property conditions, e.g. {@code query().genderIs(MALE).ageBetween(18, 25).nameIs("John").list()}.
+     */
+    public class Query {
+
+        private BitSet matches;
+
+        private Query() {
+        }
+
+        public Query nameIs(String name) {
+            return and(nameIndex.get(name));
+        }
+
+        public Query ageIs(int age) {
+            return and(ageIndex.get(age));
+        }
+
+        /**
+         * Both bounds inclusive.
+         */
+        public Query ageBetween(int minAge, int maxAge) {
+            BitSet ages = new BitSet();
+            if (minAge <= maxAge) {
+                ageIndex.subMap(minAge, true, maxAge, true).values().forEach(ages::or);
+            }
+            return and(ages);
+        }
+
+        public Query genderIs(Gender gender) {
+            return and(gender == null ? null : genderIndex[gender.ordinal()]);
+        }
+
+        public Stream<User> stream() {
+            BitSet result = matches == null ? live : matches;
+            return result.stream().mapToObj(rows::get);
+        }
+
+        public List<User> list() {
+            List<User> result = new ArrayList<>();
+            stream().forEach(result::add);
+            return result;
+        }
+
+        public int count() {
+            return (matches == null ? live : matches).cardinality();
+        }
+
+        private Query and(BitSet rows) {
+            if (rows == null) {
+                matches = new BitSet();
+            } else if (matches == null) {
+                matches = (BitSet) rows.clone();
+            } else {
+                matches.and(rows);
+            }
+            return this;
+        }
+    }
+
+    private static final class IndexedValues {
+
+        final String name;
+        final int age;
+        final Gender gender;
+
+        IndexedValues(String name, int age, Gender gender) {
+            this.name = name;
+            this.age = age;
+            this.gender = gender;
+        }
+    }
+
+    private static final class TrackedUser extends User {
+
+        IndexedUserCollection owner;
+
+        TrackedUser(String name, int age, Gender gender) {
+            super(name, age, gender);
+        }
+
+        @Override
+        public void setName(String name) {
+            super.setName(name);
+            reindex();
+        }
+
+        @Override
+        public void setAge(int age) {
+            super.setAge(age);
+            reindex();
+        }
+
+        @Override
+        public void setGender(Gender gender) {
+            super.setGender(gender);
+            reindex();
+        }
+
+        private void reindex() {
+            if (owner != null) {
+                owner.reindex(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.justalex.streams.io;
+
+/**
+ * Binary user file layout, all numbers big endian:
+ * <pre>
+ * header     magic:int  version:int  records:long  dictionaryOffset:long
+ * records    nameId:int  age:int  genderOrdinal:byte       (fixed width, {@value #RECORD_SIZE} bytes each)
+ * dictionary names:int  then per name  length:int  utf8:byte[length]
+ * </pre>
+ * A {@code null} name is stored as name id {@code -1}, a {@code null} gender as ordinal {@code -1}.
+ */
+final class UserFileFormat {
+
+    static final int MAGIC = 0x55535231; // "USR1"
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+    static final int RECORDS_OFFSET_POSITION = 8;
+
+    static final int NAME_OFFSET = 0;
+    static final int AGE_OFFSET = 4;
+    static final int GENDER_OFFSET = 8;
+    static final int RECORD_SIZE = 9;
+
+    static final int NO_NAME = -1;
+    static final byte NO_GENDER = -1;
+
+    private UserFileFormat() {
+    }
+}
@@ -0,0 +1,223 @@
+package com.justalex.streams.io;
+
+import com.justalex.streams.spliterators.UserSpliterators;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static com.justalex.streams.io.UserFileFormat.*;
+
+/**
+ * Reads a {@link UserFileFormat} file through {@link FileChannel#map}. Records are decoded straight from the
+ * mapped pages with absolute reads, so streams (parallel ones included) never copy through heap byte arrays.
+ * Files larger than 2GB are mapped in several segments.
+ */
+public class UserFileReader implements Closeable {
+
+    private static final Gender[] GENDERS = Gender.values();
+    private static final int SEGMENT_RECORDS = Integer.MAX_VALUE / RECORD_SIZE;
+
+    private final FileChannel channel;
+    private final long records;
+    private final MappedByteBuffer[] segments;
+    private final String[] names;
+
+    public UserFileReader(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC) {
+                throw new IOException("Not a user file: " + file);
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported user file version " + version + ": " + file);
+            }
+            records = header.getLong();
+            long dictionaryOffset = header.getLong();
+            if (dictionaryOffset != HEADER_SIZE + records * RECORD_SIZE) {
+                throw new IOException("Corrupted or unfinished user file: " + file);
+            }
+            segments = mapSegments();
+            names = readDictionary(dictionaryOffset);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return records;
+    }
+
+    public String getName(long record) {
+        int id = segment(record).getInt(offset(record) + NAME_OFFSET);
+        return id == NO_NAME ? null : names[id];
+    }
+
+    public int getAge(long record) {
+        return segment(record).getInt(offset(record) + AGE_OFFSET);
+    }
+
+    public Gender getGender(long record) {
+        byte ordinal = segment(record).get(offset(record) + GENDER_OFFSET);
+        return ordinal == NO_GENDER ? null : GENDERS[ordinal];
+    }
+
+    public User getUser(long record) {
+        return new User(getName(record), getAge(record), getGender(record));
+    }
+
+    public Spliterator<User> spliterator() {
+        return UserSpliterators.ofIndexRange(checkedSize(), this::getUser);
+    }
+
+    public Stream<User> users() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Ages read straight from the mapped records, no {@link User} is created.
+     */
+    public IntStream ages() {
+        return StreamSupport.intStream(UserSpliterators.ofIndexRangeInt(checkedSize(), this::getAge), false);
+    }
+
+    /**
+     * Stream of {@link UserView}s, each split re-points a single view from record to record.
+     * Elements are only valid until the next one is pulled: filter, map and aggregate them,
+     * but {@link UserView#materialize()} those that have to be kept.
+     */
+    public Stream<UserView> views() {
+        return StreamSupport.stream(new ViewSpliterator(0, checkedSize()), false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long checkedSize() {
+        if (!channel.isOpen()) {
+            throw new IllegalStateException("Reader is closed");
+        }
+        return records;
+    }
+
+    private ByteBuffer segment(long record) {
+        if (record < 0 || record >= records) {
+            throw new IndexOutOfBoundsException("Record: " + record + ", records: " + records);
+        }
+        return segments[(int) (record / SEGMENT_RECORDS)];
+    }
+
+    private static int offset(long record) {
+        return (int) (record % SEGMENT_RECORDS) * RECORD_SIZE;
+    }
+
+    private class ViewSpliterator implements Spliterator<UserView> {
+
+        private long index;
+        private final long end;
+        private UserView view;
+
+        ViewSpliterator(long index, long end) {
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super UserView> action) {
+            if (index >= end) {
+                return false;
+            }
+            action.accept(viewAt(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super UserView> action) {
+            long hi = end;
+            for (long i = index; i < hi; i++) {
+                action.accept(viewAt(i));
+            }
+            index = hi;
+        }
+
+        @Override
+        public Spliterator<UserView> trySplit() {
+            long mid = (index + end) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            ViewSpliterator prefix = new ViewSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | IMMUTABLE | NONNULL;
+        }
+
+        private UserView viewAt(long record) {
+            ByteBuffer segment = segment(record);
+            if (view == null) {
+                view = new UserView(segment, names);
+            }
+            view.point(segment, offset(record));
+            return view;
+        }
+    }
+
+    private MappedByteBuffer[] mapSegments() throws IOException {
+        int count = (int) ((records + SEGMENT_RECORDS - 1) / SEGMENT_RECORDS);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long first = (long) i * SEGMENT_RECORDS;
+            long length = Math.min(SEGMENT_RECORDS, records - first) * RECORD_SIZE;
+            mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE, length);
+        }
+        return mapped;
+    }
+
+    private String[] readDictionary(long offset) throws IOException {
+        ByteBuffer dictionary = channel.map(FileChannel.MapMode.READ_ONLY, offset, channel.size() - offset);
+        String[] result = new String[dictionary.getInt()];
+        for (int i = 0; i < result.length; i++) {
+            byte[] utf8 = new byte[dictionary.getInt()];
+            dictionary.get(utf8);
+            result[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+        return result;
+    }
+
+    private void readFully(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            int read = channel.read(target, position + target.position());
+            if (read < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+}
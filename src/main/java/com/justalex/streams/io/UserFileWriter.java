@@ -0,0 +1,161 @@
+package com.justalex.streams.io;
+
+import com.justalex.streams.users.User;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.justalex.streams.io.UserFileFormat.*;
+
+/**
+ * Writes users in the {@link UserFileFormat} layout. Names are dictionary encoded while writing,
+ * the dictionary and the final record count are written on {@link #close()}.
+ * After a failed write the header is left unfinished, so readers reject the truncated file.
+ */
+public class UserFileWriter implements Closeable {
+
+    private static final int BUFFER_RECORDS = 8192;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_RECORDS * RECORD_SIZE);
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private long records;
+    private boolean closed;
+    private boolean failed;
+
+    public UserFileWriter(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION).putLong(0).putLong(0).flip();
+        writeFully(header);
+    }
+
+    public static long write(Path file, Stream<User> users) throws IOException {
+        try (UserFileWriter writer = new UserFileWriter(file)) {
+            writer.writeAll(users);
+            return writer.records;
+        }
+    }
+
+    public void write(User user) throws IOException {
+        if (closed) {
+            throw new IOException("Writer is closed");
+        }
+        if (buffer.remaining() < RECORD_SIZE) {
+            try {
+                flushBuffer();
+            } catch (IOException e) {
+                failed = true;
+                throw e;
+            }
+        }
+        buffer.putInt(nameId(user.getName()));
+        buffer.putInt(user.getAge());
+        buffer.put(user.getGender() == null ? NO_GENDER : (byte) user.getGender().ordinal());
+        records++;
+    }
+
+    public void writeAll(Stream<User> users) throws IOException {
+        try {
+            users.sequential().forEachOrdered(user -> {
+                try {
+                    write(user);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            failed = true;
+            throw e.getCause();
+        } catch (RuntimeException | Error e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    public long records() {
+        return records;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (failed) {
+            channel.close();
+            return;
+        }
+        try {
+            flushBuffer();
+            long dictionaryOffset = channel.position();
+            writeDictionary();
+
+            ByteBuffer counts = ByteBuffer.allocate(16);
+            counts.putLong(records).putLong(dictionaryOffset).flip();
+            while (counts.hasRemaining()) {
+                channel.write(counts, RECORDS_OFFSET_POSITION + counts.position());
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    private int nameId(String name) {
+        if (name == null) {
+            return NO_NAME;
+        }
+        Integer id = nameIds.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            nameIds.put(name, id);
+        }
+        return id;
+    }
+
+    private void writeDictionary() throws IOException {
+        ByteBuffer count = ByteBuffer.allocate(4);
+        count.putInt(names.size()).flip();
+        writeFully(count);
+        for (String name : names) {
+            byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < 4 + utf8.length) {
+                flushBuffer();
+            }
+            if (buffer.remaining() < 4 + utf8.length) {
+                ByteBuffer large = ByteBuffer.allocate(4 + utf8.length);
+                large.putInt(utf8.length).put(utf8).flip();
+                writeFully(large);
+            } else {
+                buffer.putInt(utf8.length).put(utf8);
+            }
+        }
+        flushBuffer();
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}
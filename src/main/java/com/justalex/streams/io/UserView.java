@@ -0,0 +1,90 @@
+package com.justalex.streams.io;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+
+import java.nio.ByteBuffer;
+
+import static com.justalex.streams.io.UserFileFormat.*;
+
+/**
+ * Read-only flyweight {@link User} over a record of a {@link UserFileFormat} buffer, usually a mapped or direct one.
+ * Fields are decoded on each access, and the same view is re-pointed at the next record instead of creating a user per row.
+ * {@code equals}/{@code hashCode} are the ones of {@link User}. A view must not be kept once it moved on;
+ * call {@link #materialize()} to keep a row.
+ */
+public class UserView extends User {
+
+    private static final Gender[] GENDERS = Gender.values();
+
+    private final String[] names;
+    private ByteBuffer records;
+    private int offset = -1;
+
+    /**
+     * @param records buffer holding {@link UserFileFormat} records from position 0
+     * @param names   name dictionary the record name ids refer to
+     */
+    public UserView(ByteBuffer records, String[] names) {
+        super(null, 0, null);
+        this.records = records;
+        this.names = names;
+    }
+
+    public UserView moveTo(int record) {
+        int recordOffset = record * RECORD_SIZE;
+        if (record < 0 || recordOffset > records.limit() - RECORD_SIZE) {
+            throw new IndexOutOfBoundsException("Record: " + record + ", records: " + records.limit() / RECORD_SIZE);
+        }
+        offset = recordOffset;
+        return this;
+    }
+
+    void point(ByteBuffer records, int offset) {
+        this.records = records;
+        this.offset = offset;
+    }
+
+    public User materialize() {
+        return new User(getName(), getAge(), getGender());
+    }
+
+    @Override
+    public String getName() {
+        int id = records.getInt(checkedOffset() + NAME_OFFSET);
+        return id == NO_NAME ? null : names[id];
+    }
+
+    @Override
+    public int getAge() {
+        return records.getInt(checkedOffset() + AGE_OFFSET);
+    }
+
+    @Override
+    public Gender getGender() {
+        byte ordinal = records.get(checkedOffset() + GENDER_OFFSET);
+        return ordinal == NO_GENDER ? null : GENDERS[ordinal];
+    }
+
+    @Override
+    public void setName(String name) {
+        throw new UnsupportedOperationException("UserView is read-only");
+    }
+
+    @Override
+    public void setAge(int age) {
+        throw new UnsupportedOperationException("UserView is read-only");
+    }
+
+    @Override
+    public void setGender(Gender gender) {
+        throw new UnsupportedOperationException("UserView is read-only");
+    }
+
+    private int checkedOffset() {
+        if (offset < 0) {
+            throw new IllegalStateException("View doesn't point at a record yet");
+        }
+        return offset;
+    }
+}
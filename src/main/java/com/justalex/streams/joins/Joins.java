@@ -0,0 +1,100 @@
+package com.justalex.streams.joins;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Hash joins replacing the nested "for each key, stream all rows and findFirst" loop.
+ * A hash index is built on one side in O(n) and the other side is streamed against it, so matching is O(n + m).
+ * Returned streams are lazy, call {@code parallel()} on them to probe in parallel.
+ */
+public final class Joins {
+
+    private Joins() {
+    }
+
+    /**
+     * For each key, in the order of {@code keys}, the first row (in the order of {@code rows}) having that key.
+     * Keys without a match are skipped and repeated keys repeat their row, exactly like
+     * {@code keys.forEach(k -> rows.stream().filter(r -> k.equals(key.apply(r))).findFirst().ifPresent(result::add))}.
+     */
+    public static <T, K> List<T> semiJoin(Collection<T> rows, Function<? super T, ? extends K> key, Collection<? extends K> keys) {
+        return semiJoin(rows, key, keys, false);
+    }
+
+    public static <T, K> List<T> semiJoin(Collection<T> rows, Function<? super T, ? extends K> key, Collection<? extends K> keys,
+                                          boolean parallel) {
+        Map<K, T> firstByKey;
+        if (keys.size() < rows.size()) {
+            // index the keys and scan the rows for them
+            Set<K> wanted = new HashSet<>(keys);
+            firstByKey = stream(rows, parallel)
+                .filter(row -> wanted.contains(key.apply(row)))
+                .collect(Collectors.toMap(key, Function.identity(), (first, next) -> first));
+        } else {
+            firstByKey = firstByKey(rows, key, parallel);
+        }
+        return stream(keys, parallel)
+            .map(firstByKey::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Pairs of rows with equal keys. The index is built on the smaller side, pairs come in the order of the other side.
+     */
+    public static <L, R, K> Stream<Pair<L, R>> innerJoin(Collection<L> left, Function<? super L, ? extends K> leftKey,
+                                                         Collection<R> right, Function<? super R, ? extends K> rightKey) {
+        if (left.size() < right.size()) {
+            Map<K, List<L>> index = index(left, leftKey);
+            return right.stream().flatMap(r -> {
+                List<L> matches = index.get(rightKey.apply(r));
+                return matches == null ? Stream.empty() : matches.stream().map(l -> new Pair<>(l, r));
+            });
+        }
+        Map<K, List<R>> index = index(right, rightKey);
+        return left.stream().flatMap(l -> {
+            List<R> matches = index.get(leftKey.apply(l));
+            return matches == null ? Stream.empty() : matches.stream().map(r -> new Pair<>(l, r));
+        });
+    }
+
+    /**
+     * Every left row with each of its matching right rows, or with {@code null} when nothing matches.
+     * The index is always built on the right side, pairs come in the order of the left side.
+     */
+    public static <L, R, K> Stream<Pair<L, R>> leftJoin(Collection<L> left, Function<? super L, ? extends K> leftKey,
+                                                        Collection<R> right, Function<? super R, ? extends K> rightKey) {
+        Map<K, List<R>> index = index(right, rightKey);
+        return left.stream().flatMap(l -> {
+            List<R> matches = index.get(leftKey.apply(l));
+            return matches == null ? Stream.of(new Pair<>(l, (R) null)) : matches.stream().map(r -> new Pair<>(l, r));
+        });
+    }
+
+    private static <T, K> Map<K, List<T>> index(Collection<T> rows, Function<? super T, ? extends K> key) {
+        Map<K, List<T>> index = new HashMap<>(rows.size() * 4 / 3 + 1);
+        for (T row : rows) {
+            index.computeIfAbsent(key.apply(row), k -> new ArrayList<>(1)).add(row);
+        }
+        return index;
+    }
+
+    private static <T, K> Map<K, T> firstByKey(Collection<T> rows, Function<? super T, ? extends K> key, boolean parallel) {
+        if (!parallel) {
+            Map<K, T> index = new HashMap<>(rows.size() * 4 / 3 + 1);
+            for (T row : rows) {
+                index.putIfAbsent(key.apply(row), row);
+            }
+            return index;
+        }
+        // ordered parallel toMap keeps the earlier value when merging splits
+        return rows.parallelStream().collect(Collectors.toMap(key, Function.identity(), (first, next) -> first));
+    }
+
+    private static <E> Stream<E> stream(Collection<E> source, boolean parallel) {
+        return parallel ? source.parallelStream() : source.stream();
+    }
+}
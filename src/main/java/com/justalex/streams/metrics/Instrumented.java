@@ -0,0 +1,184 @@
+package com.justalex.streams.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Wrappers that record per stage {@link StageMetrics}, e.g. to find out which level of
+ * {@code groupingBy(User::getGender, mapping(User::getName, joining(", ")))} burns the CPU:
+ * <pre>{@code
+ * collector("byGender", groupingBy(User::getGender, collector("names", mapping(User::getName, joining(", ")))))
+ * }</pre>
+ * Metrics of a name are shared by all wrappers using it and exported through JMX.
+ * Instrumentation is off unless the {@code streams.instrumentation} system property is {@code true}
+ * or {@link #setEnabled(boolean)} is called; wrappers created while it is off are the unwrapped arguments,
+ * so disabled instrumentation costs nothing per element. Enabling it turns on the JVM's per thread allocation counting.
+ */
+public final class Instrumented {
+
+    private static final String DOMAIN = "com.justalex.streams";
+    private static final Map<String, StageMetrics> METRICS = new ConcurrentHashMap<>();
+    private static volatile boolean enabled;
+
+    static {
+        setEnabled(Boolean.getBoolean("streams.instrumentation"));
+    }
+
+    private Instrumented() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Affects wrappers created afterwards, existing ones keep recording or not.
+     */
+    public static void setEnabled(boolean enabled) {
+        if (enabled) {
+            StageMetrics.enableAllocationCounting();
+        }
+        Instrumented.enabled = enabled;
+    }
+
+    /**
+     * Metrics recorded under {@code name}, registered with the platform MBean server on first use.
+     */
+    public static StageMetrics metrics(String name) {
+        return METRICS.computeIfAbsent(Objects.requireNonNull(name, "name"), Instrumented::register);
+    }
+
+    public static <T, A, R> Collector<T, A, R> collector(String name, Collector<T, A, R> collector) {
+        if (!enabled) {
+            return collector;
+        }
+        StageMetrics metrics = metrics(name);
+        Supplier<A> supplier = collector.supplier();
+        BiConsumer<A, T> accumulator = collector.accumulator();
+        BinaryOperator<A> combiner = collector.combiner();
+        Function<A, R> finisher = collector.finisher();
+        return Collector.of(
+            () -> {
+                long nanos = System.nanoTime();
+                long bytes = StageMetrics.allocatedBytesOfCurrentThread();
+                A container = supplier.get();
+                metrics.record(StageMetrics.Phase.SUPPLIER, nanos, bytes);
+                return container;
+            },
+            (container, element) -> {
+                metrics.elementIn();
+                long nanos = System.nanoTime();
+                long bytes = StageMetrics.allocatedBytesOfCurrentThread();
+                accumulator.accept(container, element);
+                metrics.record(StageMetrics.Phase.ACCUMULATOR, nanos, bytes);
+            },
+            (left, right) -> {
+                long nanos = System.nanoTime();
+                long bytes = StageMetrics.allocatedBytesOfCurrentThread();
+                A combined = combiner.apply(left, right);
+                metrics.record(StageMetrics.Phase.COMBINER, nanos, bytes);
+                return combined;
+            },
+            container -> {
+                long nanos = System.nanoTime();
+                long bytes = StageMetrics.allocatedBytesOfCurrentThread();
+                R result = finisher.apply(container);
+                metrics.record(StageMetrics.Phase.FINISHER, nanos, bytes);
+                metrics.elementOut();
+                return result;
+            },
+            characteristicsWithFinisher(collector));
+    }
+
+    /**
+     * The wrapped finisher records the call, so it must not be skipped even if the wrapped one is the identity.
+     */
+    private static Collector.Characteristics[] characteristicsWithFinisher(Collector<?, ?, ?> collector) {
+        return collector.characteristics().stream()
+            .filter(characteristic -> characteristic != Collector.Characteristics.IDENTITY_FINISH)
+            .toArray(Collector.Characteristics[]::new);
+    }
+
+    /**
+     * Filter predicate counting tested elements in and accepted elements out.
+     */
+    public static <T> Predicate<T> predicate(String name, Predicate<T> predicate) {
+        if (!enabled) {
+            return predicate;
+        }
+        StageMetrics metrics = metrics(name);
+        return element -> {
+            metrics.elementIn();
+            long nanos = System.nanoTime();
+            long bytes = StageMetrics.allocatedBytesOfCurrentThread();
+            boolean accepted = predicate.test(element);
+            metrics.record(StageMetrics.Phase.STAGE, nanos, bytes);
+            if (accepted) {
+                metrics.elementOut();
+            }
+            return accepted;
+        };
+    }
+
+    public static <T, R> Function<T, R> function(String name, Function<T, R> function) {
+        if (!enabled) {
+            return function;
+        }
+        StageMetrics metrics = metrics(name);
+        return element -> {
+            metrics.elementIn();
+            long nanos = System.nanoTime();
+            long bytes = StageMetrics.allocatedBytesOfCurrentThread();
+            R result = function.apply(element);
+            metrics.record(StageMetrics.Phase.STAGE, nanos, bytes);
+            metrics.elementOut();
+            return result;
+        };
+    }
+
+    /**
+     * Counts the elements entering and leaving an arbitrary chain of intermediate operations, e.g.
+     * {@code stage("distinctNames", s -> s.map(User::getName).distinct()).apply(users.stream())}.
+     * Stream stages are fused and lazy, so only the wrapped lambdas can be timed.
+     * Elements are counted by always passing filters rather than {@code peek}, which {@code count()} skips on sized
+     * streams; as with any filter the instrumented stream is no longer sized.
+     */
+    public static <T, R> Function<Stream<T>, Stream<R>> stage(String name, Function<Stream<T>, Stream<R>> stage) {
+        if (!enabled) {
+            return stage;
+        }
+        StageMetrics metrics = metrics(name);
+        return stream -> stage.apply(stream.filter(element -> {
+            metrics.elementIn();
+            return true;
+        })).filter(element -> {
+            metrics.elementOut();
+            return true;
+        });
+    }
+
+    private static StageMetrics register(String name) {
+        StageMetrics metrics = new StageMetrics(name);
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=Stage,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, objectName);
+        } catch (InstanceAlreadyExistsException e) {
+            // registered by another copy of this class, e.g. from a different class loader
+        } catch (JMException e) {
+            throw new IllegalStateException("Can't register metrics of " + name, e);
+        }
+        return metrics;
+    }
+}
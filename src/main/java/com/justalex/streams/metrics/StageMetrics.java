@@ -0,0 +1,188 @@
+package com.justalex.streams.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free counters of one instrumented collector or stream stage.
+ * Times and allocations of nested instrumented stages are included in the enclosing one.
+ */
+public class StageMetrics implements StageMetricsMBean {
+
+    /**
+     * Part of a collector or stage a call is recorded for, {@link #STAGE} covers wrapped predicates and functions.
+     */
+    public enum Phase {
+        SUPPLIER, ACCUMULATOR, COMBINER, FINISHER, STAGE
+    }
+
+    private static volatile com.sun.management.ThreadMXBean threads;
+
+    private final String name;
+    private final LongAdder elementsIn = new LongAdder();
+    private final LongAdder elementsOut = new LongAdder();
+    private final LongAdder[] calls = adders();
+    private final LongAdder[] nanos = adders();
+    private final LongAdder allocatedBytes = new LongAdder();
+
+    StageMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Turns on per thread allocation counting of the JVM, done once instrumentation is enabled.
+     */
+    static synchronized void enableAllocationCounting() {
+        if (threads == null) {
+            threads = allocationCountingThreads();
+        }
+    }
+
+    /**
+     * Bytes allocated so far by the current thread, or 0 if allocation counting is off or the JVM doesn't track it.
+     */
+    static long allocatedBytesOfCurrentThread() {
+        com.sun.management.ThreadMXBean threads = StageMetrics.threads;
+        return threads != null ? threads.getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    void record(Phase phase, long startNanos, long startAllocatedBytes) {
+        nanos[phase.ordinal()].add(System.nanoTime() - startNanos);
+        allocatedBytes.add(allocatedBytesOfCurrentThread() - startAllocatedBytes);
+        calls[phase.ordinal()].increment();
+    }
+
+    void elementIn() {
+        elementsIn.increment();
+    }
+
+    void elementOut() {
+        elementsOut.increment();
+    }
+
+    public long getCalls(Phase phase) {
+        return calls[phase.ordinal()].sum();
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()].sum();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getElementsIn() {
+        return elementsIn.sum();
+    }
+
+    @Override
+    public long getElementsOut() {
+        return elementsOut.sum();
+    }
+
+    @Override
+    public long getSupplierCalls() {
+        return getCalls(Phase.SUPPLIER);
+    }
+
+    @Override
+    public long getSupplierNanos() {
+        return getNanos(Phase.SUPPLIER);
+    }
+
+    @Override
+    public long getAccumulatorCalls() {
+        return getCalls(Phase.ACCUMULATOR);
+    }
+
+    @Override
+    public long getAccumulatorNanos() {
+        return getNanos(Phase.ACCUMULATOR);
+    }
+
+    @Override
+    public long getCombinerCalls() {
+        return getCalls(Phase.COMBINER);
+    }
+
+    @Override
+    public long getCombinerNanos() {
+        return getNanos(Phase.COMBINER);
+    }
+
+    @Override
+    public long getFinisherCalls() {
+        return getCalls(Phase.FINISHER);
+    }
+
+    @Override
+    public long getFinisherNanos() {
+        return getNanos(Phase.FINISHER);
+    }
+
+    @Override
+    public long getStageCalls() {
+        return getCalls(Phase.STAGE);
+    }
+
+    @Override
+    public long getStageNanos() {
+        return getNanos(Phase.STAGE);
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    @Override
+    public void reset() {
+        elementsIn.reset();
+        elementsOut.reset();
+        for (Phase phase : Phase.values()) {
+            calls[phase.ordinal()].reset();
+            nanos[phase.ordinal()].reset();
+        }
+        allocatedBytes.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "StageMetrics{" +
+            "name='" + name + '\'' +
+            ", elementsIn=" + getElementsIn() +
+            ", elementsOut=" + getElementsOut() +
+            ", accumulatorCalls=" + getAccumulatorCalls() +
+            ", accumulatorNanos=" + getAccumulatorNanos() +
+            ", combinerCalls=" + getCombinerCalls() +
+            ", stageCalls=" + getStageCalls() +
+            ", stageNanos=" + getStageNanos() +
+            ", allocatedBytes=" + getAllocatedBytes() +
+            '}';
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[Phase.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCountingThreads() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        if (!threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        return threads;
+    }
+}
@@ -0,0 +1,37 @@
+package com.justalex.streams.metrics;
+
+/**
+ * JMX view of {@link StageMetrics}, registered as {@code com.justalex.streams:type=Stage,name=<stage name>}.
+ */
+public interface StageMetricsMBean {
+
+    String getName();
+
+    long getElementsIn();
+
+    long getElementsOut();
+
+    long getSupplierCalls();
+
+    long getSupplierNanos();
+
+    long getAccumulatorCalls();
+
+    long getAccumulatorNanos();
+
+    long getCombinerCalls();
+
+    long getCombinerNanos();
+
+    long getFinisherCalls();
+
+    long getFinisherNanos();
+
+    long getStageCalls();
+
+    long getStageNanos();
+
+    long getAllocatedBytes();
+
+    void reset();
+}
@@ -0,0 +1,48 @@
+package com.justalex.streams.query;
+
+import com.justalex.streams.users.User;
+
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Template of {@link GroupKey#AGE} plans, see {@link Plan} for how it is copied per query shape.
+ */
+final class AgePlan extends Plan {
+
+    private static final Shape SHAPE = shapeOf(MethodHandles.lookup());
+    private static final boolean AGE_FILTERED = SHAPE.ageFiltered;
+    private static final boolean GENDER_FILTERED = SHAPE.genderFiltered;
+    private static final boolean NAME_FILTERED = SHAPE.nameFiltered;
+    private static final int DIRECT_AGES = 256;
+
+    @Override
+    Groups run(Iterable<? extends User> users, int minAge, int maxAge, int genderMask, Set<String> names) {
+        Groups groups = new Groups(16);
+        // slot + 1 of ages in [0, 256), anything else is looked up in a map
+        int[] slots = new int[DIRECT_AGES];
+        Map<Integer, Integer> otherSlots = new HashMap<>();
+        for (User user : users) {
+            int age = user.getAge();
+            if (AGE_FILTERED && (age < minAge || age > maxAge)
+                || GENDER_FILTERED && (genderMask & genderBit(user.getGender())) == 0
+                || NAME_FILTERED && !names.contains(user.getName())) {
+                continue;
+            }
+            int slot;
+            if (age >= 0 && age < DIRECT_AGES) {
+                slot = slots[age] - 1;
+                if (slot < 0) {
+                    slot = groups.newSlot(age);
+                    slots[age] = slot + 1;
+                }
+            } else {
+                slot = otherSlots.computeIfAbsent(age, groups::newSlot);
+            }
+            groups.add(slot, age);
+        }
+        return groups;
+    }
+}
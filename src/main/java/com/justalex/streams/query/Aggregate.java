@@ -0,0 +1,79 @@
+package com.justalex.streams.query;
+
+import java.util.IntSummaryStatistics;
+
+/**
+ * Aggregation of the ages in a group, the result types are the ones of the matching {@link java.util.stream.Collectors}.
+ */
+public abstract class Aggregate<R> {
+
+    /**
+     * Like {@code counting()}.
+     */
+    public static final Aggregate<Long> COUNT = new Aggregate<Long>("COUNT") {
+        @Override
+        Long finish(Groups groups, int slot) {
+            return groups.counts[slot];
+        }
+    };
+
+    /**
+     * Like {@code summingInt(User::getAge)}, including its int overflow.
+     */
+    public static final Aggregate<Integer> SUM_AGE = new Aggregate<Integer>("SUM_AGE") {
+        @Override
+        Integer finish(Groups groups, int slot) {
+            return (int) groups.sums[slot];
+        }
+    };
+
+    /**
+     * Like {@code averagingInt(User::getAge)}.
+     */
+    public static final Aggregate<Double> AVERAGE_AGE = new Aggregate<Double>("AVERAGE_AGE") {
+        @Override
+        Double finish(Groups groups, int slot) {
+            return (double) groups.sums[slot] / groups.counts[slot];
+        }
+    };
+
+    public static final Aggregate<Integer> MIN_AGE = new Aggregate<Integer>("MIN_AGE") {
+        @Override
+        Integer finish(Groups groups, int slot) {
+            return groups.mins[slot];
+        }
+    };
+
+    public static final Aggregate<Integer> MAX_AGE = new Aggregate<Integer>("MAX_AGE") {
+        @Override
+        Integer finish(Groups groups, int slot) {
+            return groups.maxs[slot];
+        }
+    };
+
+    /**
+     * Like {@code summarizingInt(User::getAge)}.
+     */
+    public static final Aggregate<IntSummaryStatistics> AGE_SUMMARY = new Aggregate<IntSummaryStatistics>("AGE_SUMMARY") {
+        @Override
+        IntSummaryStatistics finish(Groups groups, int slot) {
+            return new IntSummaryStatistics(groups.counts[slot], groups.mins[slot], groups.maxs[slot], groups.sums[slot]);
+        }
+    };
+
+    private final String name;
+
+    private Aggregate(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Result of a group, only called for groups with at least one user.
+     */
+    abstract R finish(Groups groups, int slot);
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
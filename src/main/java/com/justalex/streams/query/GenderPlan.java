@@ -0,0 +1,56 @@
+package com.justalex.streams.query;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Template of {@link GroupKey#GENDER} plans, see {@link Plan} for how it is copied per query shape.
+ */
+final class GenderPlan extends Plan {
+
+    private static final Shape SHAPE = shapeOf(MethodHandles.lookup());
+    private static final boolean AGE_FILTERED = SHAPE.ageFiltered;
+    private static final boolean GENDER_FILTERED = SHAPE.genderFiltered;
+    private static final boolean NAME_FILTERED = SHAPE.nameFiltered;
+    private static final Gender[] GENDERS = Gender.values();
+
+    @Override
+    Groups run(Iterable<? extends User> users, int minAge, int maxAge, int genderMask, Set<String> names) {
+        // few enough keys to accumulate in local arrays indexed by ordinal
+        long[] counts = new long[GENDERS.length];
+        long[] sums = new long[GENDERS.length];
+        int[] mins = new int[GENDERS.length];
+        int[] maxs = new int[GENDERS.length];
+        Arrays.fill(mins, Integer.MAX_VALUE);
+        Arrays.fill(maxs, Integer.MIN_VALUE);
+        for (User user : users) {
+            int age = user.getAge();
+            Gender gender = user.getGender();
+            if (AGE_FILTERED && (age < minAge || age > maxAge)
+                || GENDER_FILTERED && (genderMask & genderBit(gender)) == 0
+                || NAME_FILTERED && !names.contains(user.getName())) {
+                continue;
+            }
+            int ordinal = ((Gender) requireKey(gender)).ordinal();
+            counts[ordinal]++;
+            sums[ordinal] += age;
+            mins[ordinal] = Math.min(mins[ordinal], age);
+            maxs[ordinal] = Math.max(maxs[ordinal], age);
+        }
+        Groups groups = new Groups(GENDERS.length);
+        for (int ordinal = 0; ordinal < GENDERS.length; ordinal++) {
+            if (counts[ordinal] != 0) {
+                int slot = groups.newSlot(GENDERS[ordinal]);
+                groups.counts[slot] = counts[ordinal];
+                groups.sums[slot] = sums[ordinal];
+                groups.mins[slot] = mins[ordinal];
+                groups.maxs[slot] = maxs[ordinal];
+            }
+        }
+        return groups;
+    }
+}
@@ -0,0 +1,28 @@
+package com.justalex.streams.query;
+
+import com.justalex.streams.users.Gender;
+
+/**
+ * Column a {@link UserQuery} groups by.
+ */
+public final class GroupKey<K> {
+
+    public static final GroupKey<Gender> GENDER = new GroupKey<>(Kind.GENDER);
+    public static final GroupKey<Integer> AGE = new GroupKey<>(Kind.AGE);
+    public static final GroupKey<String> NAME = new GroupKey<>(Kind.NAME);
+
+    enum Kind {
+        GENDER, AGE, NAME
+    }
+
+    final Kind kind;
+
+    private GroupKey(Kind kind) {
+        this.kind = kind;
+    }
+
+    @Override
+    public String toString() {
+        return kind.name();
+    }
+}
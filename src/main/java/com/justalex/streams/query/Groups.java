@@ -0,0 +1,60 @@
+package com.justalex.streams.query;
+
+import java.util.Arrays;
+
+/**
+ * Primitive accumulators of all groups, indexed by the group slot a plan assigned.
+ * Every aggregate is derived from count, sum, min and max, which are all kept in the same pass.
+ */
+final class Groups {
+
+    Object[] keys;
+    long[] counts;
+    long[] sums;
+    int[] mins;
+    int[] maxs;
+    private int size;
+
+    Groups(int capacity) {
+        keys = new Object[capacity];
+        counts = new long[capacity];
+        sums = new long[capacity];
+        mins = new int[capacity];
+        maxs = new int[capacity];
+        Arrays.fill(mins, Integer.MAX_VALUE);
+        Arrays.fill(maxs, Integer.MIN_VALUE);
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Slot for a key seen for the first time.
+     */
+    int newSlot(Object key) {
+        if (size == keys.length) {
+            int capacity = Math.max(8, size * 2);
+            keys = Arrays.copyOf(keys, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+            sums = Arrays.copyOf(sums, capacity);
+            mins = Arrays.copyOf(mins, capacity);
+            maxs = Arrays.copyOf(maxs, capacity);
+            Arrays.fill(mins, size, capacity, Integer.MAX_VALUE);
+            Arrays.fill(maxs, size, capacity, Integer.MIN_VALUE);
+        }
+        keys[size] = key;
+        return size++;
+    }
+
+    void add(int slot, int age) {
+        counts[slot]++;
+        sums[slot] += age;
+        if (age < mins[slot]) {
+            mins[slot] = age;
+        }
+        if (age > maxs[slot]) {
+            maxs[slot] = age;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.justalex.streams.query;
+
+import com.justalex.streams.users.User;
+
+import java.lang.invoke.MethodHandles;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Template of {@link GroupKey#NAME} plans, see {@link Plan} for how it is copied per query shape.
+ */
+final class NamePlan extends Plan {
+
+    private static final Shape SHAPE = shapeOf(MethodHandles.lookup());
+    private static final boolean AGE_FILTERED = SHAPE.ageFiltered;
+    private static final boolean GENDER_FILTERED = SHAPE.genderFiltered;
+    private static final boolean NAME_FILTERED = SHAPE.nameFiltered;
+
+    @Override
+    Groups run(Iterable<? extends User> users, int minAge, int maxAge, int genderMask, Set<String> names) {
+        Groups groups = new Groups(16);
+        Map<String, int[]> slots = new HashMap<>();
+        String lastName = null;
+        int lastSlot = -1;
+        for (User user : users) {
+            int age = user.getAge();
+            String name = user.getName();
+            if (AGE_FILTERED && (age < minAge || age > maxAge)
+                || GENDER_FILTERED && (genderMask & genderBit(user.getGender())) == 0
+                || NAME_FILTERED && !names.contains(name)) {
+                continue;
+            }
+            requireKey(name);
+            // generated and stored data often repeats the same name instance, skip the hash lookup then
+            if (name != lastName) {
+                int[] slot = slots.get(name);
+                if (slot == null) {
+                    slot = new int[]{groups.newSlot(name)};
+                    slots.put(name, slot);
+                }
+                lastName = name;
+                lastSlot = slot[0];
+            }
+            groups.add(lastSlot, age);
+        }
+        return groups;
+    }
+}
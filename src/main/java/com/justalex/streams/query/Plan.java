@@ -0,0 +1,152 @@
+package com.justalex.streams.query;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.constant.ConstantDescs;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled loop of one query shape: the group key, which filters are present and the class of the users source.
+ * <p>
+ * Each group key has a template plan, {@link GenderPlan}, {@link AgePlan} and {@link NamePlan}. A plan is compiled by
+ * defining a hidden class from the template's bytes with the {@link Shape} as class data, which the copy reads into
+ * {@code static final} fields. The JIT folds those like constants, so absent filters cost nothing, and since every copy
+ * is a class of its own, the {@code Iterable}, {@code Iterator} and {@link User} call sites of one shape are profiled
+ * apart from all others and stay monomorphic however many kinds of queries and sources share the JVM.
+ * <p>
+ * Plans are stateless and cached per shape, the filter values are passed per execution. The cache holds on to the
+ * source classes it has seen.
+ */
+abstract class Plan {
+
+    private static final Map<Shape, Plan> PLANS = new ConcurrentHashMap<>();
+    private static final Map<Class<? extends Plan>, byte[]> TEMPLATES = new ConcurrentHashMap<>();
+
+    static Plan of(Shape shape) {
+        return PLANS.computeIfAbsent(shape, Plan::compile);
+    }
+
+    static int cachedPlans() {
+        return PLANS.size();
+    }
+
+    abstract Groups run(Iterable<? extends User> users, int minAge, int maxAge, int genderMask, Set<String> names);
+
+    static int genderBit(Gender gender) {
+        return gender == null ? 1 << 31 : 1 << gender.ordinal();
+    }
+
+    static Object requireKey(Object key) {
+        return Objects.requireNonNull(key, "element cannot be mapped to a null key");
+    }
+
+    /**
+     * Shape a template copy was compiled for, or {@link Shape#ALL_FILTERS} for the template class itself.
+     */
+    static Shape shapeOf(MethodHandles.Lookup template) {
+        try {
+            Shape shape = MethodHandles.classData(template, ConstantDescs.DEFAULT_NAME, Shape.class);
+            return shape != null ? shape : Shape.ALL_FILTERS;
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Plan compile(Shape shape) {
+        Class<? extends Plan> template = templateOf(shape.key);
+        byte[] bytes = TEMPLATES.computeIfAbsent(template, Plan::readClassFile);
+        try {
+            MethodHandles.Lookup copy = MethodHandles.lookup().defineHiddenClassWithClassData(bytes, shape, true);
+            return (Plan) copy.findConstructor(copy.lookupClass(), MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot compile a plan for " + shape, e);
+        }
+    }
+
+    private static Class<? extends Plan> templateOf(GroupKey.Kind key) {
+        switch (key) {
+            case GENDER:
+                return GenderPlan.class;
+            case AGE:
+                return AgePlan.class;
+            case NAME:
+                return NamePlan.class;
+            default:
+                throw new IllegalArgumentException("Unknown key " + key);
+        }
+    }
+
+    private static byte[] readClassFile(Class<?> template) {
+        try (InputStream in = template.getResourceAsStream(template.getSimpleName() + ".class")) {
+            if (in == null) {
+                throw new IllegalStateException("No class file of " + template.getName());
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Everything a compiled plan is specialized for, queries of the same shape share a plan.
+     */
+    static final class Shape {
+
+        static final Shape ALL_FILTERS = new Shape(null, true, true, true, Object.class);
+
+        final GroupKey.Kind key;
+        final boolean ageFiltered;
+        final boolean genderFiltered;
+        final boolean nameFiltered;
+        final Class<?> source;
+
+        Shape(GroupKey.Kind key, boolean ageFiltered, boolean genderFiltered, boolean nameFiltered, Class<?> source) {
+            this.key = key;
+            this.ageFiltered = ageFiltered;
+            this.genderFiltered = genderFiltered;
+            this.nameFiltered = nameFiltered;
+            this.source = source;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            Shape other = (Shape) o;
+
+            return key == other.key && ageFiltered == other.ageFiltered && genderFiltered == other.genderFiltered
+                && nameFiltered == other.nameFiltered && source == other.source;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hashCode(key);
+            result = 31 * result + (ageFiltered ? 4 : 0) + (genderFiltered ? 2 : 0) + (nameFiltered ? 1 : 0);
+            result = 31 * result + source.hashCode();
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Shape{" +
+                "key=" + key +
+                ", ageFiltered=" + ageFiltered +
+                ", genderFiltered=" + genderFiltered +
+                ", nameFiltered=" + nameFiltered +
+                ", source=" + source.getName() +
+                '}';
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.justalex.streams.query;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Declarative group and aggregate query over users, e.g. the total age per gender of adults:
+ * <pre>{@code
+ * Map<Gender, Integer> totalAge = UserQuery.groupBy(GroupKey.GENDER, Aggregate.SUM_AGE).whereAgeBetween(18, 150).execute(users);
+ * }</pre>
+ * gives the same result as {@code filter(...).collect(groupingBy(User::getGender, summingInt(User::getAge)))}.
+ * Instead of a chain of lambdas the query runs as one loop with primitive accumulators, compiled once per query shape,
+ * i.e. the group key, which filters are used and the class of the users source, and cached. Queries are immutable,
+ * every {@code where} call narrows a copy of the query, several calls of the same kind intersect.
+ */
+public final class UserQuery<K, R> {
+
+    private static final int ALL_GENDERS = -1;
+
+    private final GroupKey<K> key;
+    private final Aggregate<R> aggregate;
+    private final int minAge;
+    private final int maxAge;
+    private final int genderMask;
+    private final Set<String> names;
+
+    private UserQuery(GroupKey<K> key, Aggregate<R> aggregate, int minAge, int maxAge,
+                      int genderMask, Set<String> names) {
+        this.key = key;
+        this.aggregate = aggregate;
+        this.minAge = minAge;
+        this.maxAge = maxAge;
+        this.genderMask = genderMask;
+        this.names = names;
+    }
+
+    public static <K, R> UserQuery<K, R> groupBy(GroupKey<K> key, Aggregate<R> aggregate) {
+        if (key == null || aggregate == null) {
+            throw new NullPointerException("key and aggregate are required");
+        }
+        return new UserQuery<>(key, aggregate, Integer.MIN_VALUE, Integer.MAX_VALUE, ALL_GENDERS, null);
+    }
+
+    /**
+     * Both bounds inclusive.
+     */
+    public UserQuery<K, R> whereAgeBetween(int minAge, int maxAge) {
+        return new UserQuery<>(key, aggregate, Math.max(this.minAge, minAge), Math.min(this.maxAge, maxAge), genderMask, names);
+    }
+
+    public UserQuery<K, R> whereGender(Gender... genders) {
+        int mask = 0;
+        for (Gender gender : genders) {
+            mask |= Plan.genderBit(gender);
+        }
+        return new UserQuery<>(key, aggregate, minAge, maxAge, genderMask & mask, names);
+    }
+
+    public UserQuery<K, R> whereName(String... names) {
+        Set<String> allowed = new HashSet<>(Arrays.asList(names));
+        if (this.names != null) {
+            allowed.retainAll(this.names);
+        }
+        return new UserQuery<>(key, aggregate, minAge, maxAge, genderMask, Collections.unmodifiableSet(allowed));
+    }
+
+    /**
+     * Groups without matching users are left out, like in {@code groupingBy}; a {@code null} key throws
+     * a {@link NullPointerException} like it does there.
+     */
+    @SuppressWarnings("unchecked")
+    public Map<K, R> execute(Iterable<? extends User> users) {
+        Groups groups = plan(users.getClass()).run(users, minAge, maxAge, genderMask, names);
+        Map<K, R> result = new HashMap<>((int) (groups.size() / 0.75f) + 1);
+        for (int slot = 0; slot < groups.size(); slot++) {
+            result.put((K) groups.keys[slot], aggregate.finish(groups, slot));
+        }
+        return result;
+    }
+
+    /**
+     * Number of compiled plans, queries differing only in filter values or aggregate share one.
+     */
+    public static int cachedPlans() {
+        return Plan.cachedPlans();
+    }
+
+    private Plan plan(Class<?> source) {
+        boolean ageFiltered = minAge != Integer.MIN_VALUE || maxAge != Integer.MAX_VALUE;
+        return Plan.of(new Plan.Shape(key.kind, ageFiltered, genderMask != ALL_GENDERS, names != null, source));
+    }
+
+    /**
+     * Queries are equal when they give the same result for any users, so a query can be used as a cache key.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        UserQuery<?, ?> other = (UserQuery<?, ?>) o;
+
+        if (key != other.key || aggregate != other.aggregate) return false;
+        if (minAge != other.minAge || maxAge != other.maxAge) return false;
+        if (genderMask != other.genderMask) return false;
+        return Objects.equals(names, other.names);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = key.hashCode();
+        result = 31 * result + aggregate.hashCode();
+        result = 31 * result + minAge;
+        result = 31 * result + maxAge;
+        result = 31 * result + genderMask;
+        result = 31 * result + Objects.hashCode(names);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "UserQuery{" +
+            "groupBy=" + key +
+            ", aggregate=" + aggregate +
+            (minAge != Integer.MIN_VALUE || maxAge != Integer.MAX_VALUE ? ", age in [" + minAge + ", " + maxAge + "]" : "") +
+            (genderMask != ALL_GENDERS ? ", genderMask=" + Integer.toBinaryString(genderMask) : "") +
+            (names != null ? ", names=" + names : "") +
+            '}';
+    }
+}
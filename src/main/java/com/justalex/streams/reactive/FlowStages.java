@@ -0,0 +1,213 @@
+package com.justalex.streams.reactive;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+
+/**
+ * Stream-like operators over {@link Flow.Publisher}s for unbounded sources such as a change feed,
+ * typically published through a {@link java.util.concurrent.SubmissionPublisher}.
+ * Every operator is a cold publisher that subscribes to its source once per subscriber
+ * and pulls from it only as far as the subscriber requested, so a slow consumer slows the source down
+ * instead of growing a buffer. Windows reuse ordinary {@link Collector}s such as {@code groupingBy} or {@code counting}.
+ */
+public final class FlowStages {
+
+    private FlowStages() {
+    }
+
+    public static <T> Flow.Publisher<T> filter(Flow.Publisher<T> source, Predicate<? super T> predicate) {
+        Objects.requireNonNull(predicate, "predicate");
+        return operator(source, downstream -> new OperatorSubscriber<T, T>(downstream) {
+            @Override
+            void onElement(T item, Consumer<? super T> emit) {
+                if (predicate.test(item)) {
+                    emit.accept(item);
+                }
+            }
+        });
+    }
+
+    public static <T, R> Flow.Publisher<R> map(Flow.Publisher<T> source, Function<? super T, ? extends R> mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        return operator(source, downstream -> new OperatorSubscriber<T, R>(downstream) {
+            @Override
+            void onElement(T item, Consumer<? super R> emit) {
+                emit.accept(Objects.requireNonNull(mapper.apply(item), "Flow elements can't be null"));
+            }
+        });
+    }
+
+    /**
+     * The stream of one element is drained before the next element is requested from the source.
+     */
+    public static <T, R> Flow.Publisher<R> flatMap(Flow.Publisher<T> source, Function<? super T, ? extends Stream<? extends R>> mapper) {
+        Objects.requireNonNull(mapper, "mapper");
+        return operator(source, downstream -> new OperatorSubscriber<T, R>(downstream) {
+            @Override
+            void onElement(T item, Consumer<? super R> emit) {
+                try (Stream<? extends R> stream = mapper.apply(item)) {
+                    if (stream != null) {
+                        stream.forEach(emit);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Non-overlapping windows of {@code size} by event time, e.g. "count by gender per 10 s".
+     *
+     * @see #slidingWindows(Flow.Publisher, ToLongFunction, long, long, Collector)
+     */
+    public static <T, A, R> Flow.Publisher<Window<R>> tumblingWindows(Flow.Publisher<T> source, ToLongFunction<? super T> timestamp,
+                                                                      long size, Collector<? super T, A, R> collector) {
+        return slidingWindows(source, timestamp, size, size, collector);
+    }
+
+    public static <T, A, R> Flow.Publisher<Window<R>> tumblingWindows(Flow.Publisher<T> source, ToLongFunction<? super T> timestampMillis,
+                                                                      Duration size, Collector<? super T, A, R> collector) {
+        return tumblingWindows(source, timestampMillis, size.toMillis(), collector);
+    }
+
+    /**
+     * Windows of {@code size} by event time starting every {@code slide}, aligned to multiples of {@code slide}.
+     * Timestamps are expected to be mostly increasing: a window is emitted once an element at or past its end arrives,
+     * an element arriving after all of its windows were emitted is dropped. Windows without elements are not emitted,
+     * the remaining open windows are emitted when the source completes.
+     * Memory is bounded by {@code ceil(size / slide)} collector containers.
+     */
+    public static <T, A, R> Flow.Publisher<Window<R>> slidingWindows(Flow.Publisher<T> source, ToLongFunction<? super T> timestamp,
+                                                                     long size, long slide, Collector<? super T, A, R> collector) {
+        if (size <= 0 || slide <= 0 || slide > size) {
+            throw new IllegalArgumentException("Invalid window size " + size + " and slide " + slide);
+        }
+        Objects.requireNonNull(timestamp, "timestamp");
+        Objects.requireNonNull(collector, "collector");
+        return operator(source, downstream -> new WindowOperator<>(downstream, timestamp, size, slide, collector));
+    }
+
+    /**
+     * Finite source publishing the elements of an iterable as they are requested, mostly useful for replays and tests.
+     */
+    public static <T> Flow.Publisher<T> fromIterable(Iterable<? extends T> elements) {
+        Objects.requireNonNull(elements, "elements");
+        return subscriber -> subscriber.onSubscribe(new IteratorSubscription<>(elements.iterator(), subscriber));
+    }
+
+    /**
+     * Subscribes {@code action}, requesting {@code batchSize} elements at a time.
+     * The returned future completes with the source, cancelling it cancels the subscription.
+     */
+    public static <T> CompletableFuture<Void> consume(Flow.Publisher<T> source, Consumer<? super T> action, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        CompletableFuture<Void> completion = new CompletableFuture<>();
+        source.subscribe(new Flow.Subscriber<T>() {
+            private Flow.Subscription subscription;
+            private int remaining;
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                completion.whenComplete((ignored, failure) -> {
+                    if (completion.isCancelled()) {
+                        subscription.cancel();
+                    }
+                });
+                remaining = batchSize;
+                subscription.request(batchSize);
+            }
+
+            @Override
+            public void onNext(T item) {
+                try {
+                    action.accept(item);
+                } catch (RuntimeException e) {
+                    subscription.cancel();
+                    completion.completeExceptionally(e);
+                    return;
+                }
+                if (--remaining == 0) {
+                    remaining = batchSize;
+                    subscription.request(batchSize);
+                }
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                completion.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completion.complete(null);
+            }
+        });
+        return completion;
+    }
+
+    private static <T, R> Flow.Publisher<R> operator(Flow.Publisher<T> source,
+                                                     Function<Flow.Subscriber<? super R>, OperatorSubscriber<T, R>> factory) {
+        Objects.requireNonNull(source, "source");
+        return subscriber -> source.subscribe(factory.apply(Objects.requireNonNull(subscriber, "subscriber")));
+    }
+
+    private static final class IteratorSubscription<T> implements Flow.Subscription {
+
+        private final Iterator<? extends T> iterator;
+        private final Flow.Subscriber<? super T> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private volatile boolean cancelled;
+
+        IteratorSubscription(Iterator<? extends T> iterator, Flow.Subscriber<? super T> subscriber) {
+            this.iterator = iterator;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancelled = true;
+                subscriber.onError(new IllegalArgumentException("Non-positive request: " + n));
+                return;
+            }
+            // only the call that raises demand from zero emits, reentrant requests from onNext just add to it
+            if (demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n) != 0) {
+                return;
+            }
+            long requested = n;
+            do {
+                long emitted = 0;
+                while (emitted != requested) {
+                    if (cancelled) {
+                        return;
+                    }
+                    if (!iterator.hasNext()) {
+                        cancelled = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(iterator.next());
+                    emitted++;
+                }
+                requested = demand.addAndGet(-emitted);
+            } while (requested != 0);
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.justalex.streams.reactive;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Base of the {@link FlowStages} operators: subscribes to the upstream publisher on behalf of one downstream subscriber.
+ * Upstream is asked for one element at a time and only while downstream has outstanding demand, so the only buffer
+ * is the output of the last upstream element, e.g. the elements of one {@code flatMap} stream or the windows it closed.
+ * Signals to downstream are serialized by a work-in-progress counter, {@code request} may come from any thread.
+ */
+abstract class OperatorSubscriber<T, R> implements Flow.Subscriber<T>, Flow.Subscription {
+
+    private final Flow.Subscriber<? super R> downstream;
+    private final Queue<R> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final Consumer<R> emitter = pending::add;
+
+    private Flow.Subscription upstream;
+    private volatile boolean upstreamRequested;
+    private volatile boolean done;
+    private volatile boolean cancelled;
+    private volatile Throwable error;
+    private boolean terminated;
+
+    OperatorSubscriber(Flow.Subscriber<? super R> downstream) {
+        this.downstream = downstream;
+    }
+
+    /**
+     * Transforms one upstream element, emitting any number of outputs.
+     */
+    abstract void onElement(T item, Consumer<? super R> emit);
+
+    /**
+     * Flushes state held back for later elements once upstream completes normally.
+     */
+    void onUpstreamComplete(Consumer<? super R> emit) {
+    }
+
+    @Override
+    public final void onSubscribe(Flow.Subscription subscription) {
+        if (upstream != null) {
+            subscription.cancel();
+            return;
+        }
+        upstream = subscription;
+        downstream.onSubscribe(this);
+    }
+
+    @Override
+    public final void onNext(T item) {
+        if (done || cancelled) {
+            return;
+        }
+        upstreamRequested = false;
+        try {
+            onElement(item, emitter);
+        } catch (RuntimeException e) {
+            upstream.cancel();
+            fail(e);
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public final void onError(Throwable throwable) {
+        if (done) {
+            return;
+        }
+        fail(throwable);
+    }
+
+    @Override
+    public final void onComplete() {
+        if (done) {
+            return;
+        }
+        try {
+            onUpstreamComplete(emitter);
+        } catch (RuntimeException e) {
+            fail(e);
+            return;
+        }
+        done = true;
+        drain();
+    }
+
+    @Override
+    public final void request(long n) {
+        if (n <= 0) {
+            // rule 3.9: downstream gets onError, so only upstream is cancelled and after the error is set
+            fail(new IllegalArgumentException("Non-positive request: " + n));
+            upstream.cancel();
+            return;
+        }
+        demand.getAndUpdate(current -> current + n < 0 ? Long.MAX_VALUE : current + n);
+        drain();
+    }
+
+    @Override
+    public final void cancel() {
+        if (!cancelled) {
+            cancelled = true;
+            upstream.cancel();
+        }
+    }
+
+    private void fail(Throwable throwable) {
+        error = throwable;
+        done = true;
+        drain();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            if (cancelled) {
+                pending.clear();
+            } else if (!terminated) {
+                emitPending();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void emitPending() {
+        long requested = demand.get();
+        long emitted = 0;
+        R next;
+        while (emitted != requested && (error == null) && (next = pending.poll()) != null) {
+            downstream.onNext(next);
+            emitted++;
+        }
+        if (emitted != 0 && requested != Long.MAX_VALUE) {
+            requested = demand.addAndGet(-emitted);
+        }
+        if (done && (error != null || pending.isEmpty())) {
+            terminated = true;
+            pending.clear();
+            if (error != null) {
+                downstream.onError(error);
+            } else {
+                downstream.onComplete();
+            }
+        } else if (!done && requested > 0 && pending.isEmpty() && !upstreamRequested) {
+            upstreamRequested = true;
+            upstream.request(1);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.justalex.streams.reactive;
+
+/**
+ * Result of a window aggregation, covering event times in {@code [start, end)}.
+ */
+public class Window<R> {
+
+    private final long start;
+    private final long end;
+    private final R result;
+
+    Window(long start, long end, R result) {
+        this.start = start;
+        this.end = end;
+        this.result = result;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public R getResult() {
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "Window{" +
+            "start=" + start +
+            ", end=" + end +
+            ", result=" + result +
+            '}';
+    }
+}
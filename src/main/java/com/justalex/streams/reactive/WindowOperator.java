@@ -0,0 +1,69 @@
+package com.justalex.streams.reactive;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Flow;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collector;
+
+/**
+ * Event time windows of length {@code size} starting every {@code slide}, each accumulated with its own container
+ * of the collector. At most {@code ceil(size / slide)} windows are open at a time, a window is closed and emitted
+ * as soon as an element at or past its end arrives.
+ */
+class WindowOperator<T, A, R> extends OperatorSubscriber<T, Window<R>> {
+
+    private final ToLongFunction<? super T> timestamp;
+    private final long size;
+    private final long slide;
+    private final Supplier<A> supplier;
+    private final BiConsumer<A, ? super T> accumulator;
+    private final Function<A, R> finisher;
+    private final TreeMap<Long, A> open = new TreeMap<>();
+    private long watermark = Long.MIN_VALUE;
+
+    WindowOperator(Flow.Subscriber<? super Window<R>> downstream, ToLongFunction<? super T> timestamp,
+                   long size, long slide, Collector<? super T, A, R> collector) {
+        super(downstream);
+        this.timestamp = timestamp;
+        this.size = size;
+        this.slide = slide;
+        this.supplier = collector.supplier();
+        this.accumulator = collector.accumulator();
+        this.finisher = collector.finisher();
+    }
+
+    @Override
+    void onElement(T item, Consumer<? super Window<R>> emit) {
+        long time = timestamp.applyAsLong(item);
+        if (time > watermark) {
+            watermark = time;
+            closeUpTo(time, emit);
+        }
+        long lastStart = Math.floorDiv(time, slide) * slide;
+        for (long start = lastStart; start > time - size; start -= slide) {
+            // an element out of order is only counted by windows that are still open
+            if (start + size <= watermark) {
+                break;
+            }
+            accumulator.accept(open.computeIfAbsent(start, key -> supplier.get()), item);
+        }
+    }
+
+    @Override
+    void onUpstreamComplete(Consumer<? super Window<R>> emit) {
+        closeUpTo(Long.MAX_VALUE, emit);
+    }
+
+    private void closeUpTo(long time, Consumer<? super Window<R>> emit) {
+        while (!open.isEmpty() && open.firstKey() + size <= time) {
+            Map.Entry<Long, A> window = open.pollFirstEntry();
+            long start = window.getKey();
+            emit.accept(new Window<>(start, start + size, finisher.apply(window.getValue())));
+        }
+    }
+}
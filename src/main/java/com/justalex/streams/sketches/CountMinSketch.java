@@ -0,0 +1,141 @@
+package com.justalex.streams.sketches;
+
+import java.util.*;
+
+/**
+ * Count-min sketch with a bounded set of heavy hitter candidates.
+ * Frequencies are over-estimated by at most {@code e / width * total} with probability {@code 1 - e^-depth}.
+ * Memory is fixed: {@code depth * width} counters plus {@code k} candidates. Sketches of the same shape merge by
+ * adding counters, candidates of both sides are then re-ranked against the merged counters.
+ */
+public class CountMinSketch<T> {
+
+    public static final int DEFAULT_DEPTH = 5;
+    public static final int DEFAULT_WIDTH = 2048;
+
+    private final int depth;
+    private final int width;
+    private final long[][] counters;
+    private final int k;
+    private final Map<T, Long> candidates;
+    // lower bound of the least candidate estimate, estimates only grow so most items are rejected without a scan
+    private long leastCandidate;
+    private long total;
+
+    public CountMinSketch(int k) {
+        this(k, DEFAULT_DEPTH, DEFAULT_WIDTH);
+    }
+
+    public CountMinSketch(int k, int depth, int width) {
+        if (k < 0 || depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Invalid sketch shape: k=" + k + ", depth=" + depth + ", width=" + width);
+        }
+        this.k = k;
+        this.depth = depth;
+        this.width = width;
+        this.counters = new long[depth][width];
+        this.candidates = new HashMap<>(k * 4 / 3 + 1);
+    }
+
+    public void add(T item) {
+        long hash = Hashing.hash64(item);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long count = ++counters[row][bucket(hash, row)];
+            estimate = Math.min(estimate, count);
+        }
+        total++;
+        offerCandidate(item, estimate);
+    }
+
+    public long estimate(T item) {
+        long hash = Hashing.hash64(item);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters[row][bucket(hash, row)]);
+        }
+        return estimate;
+    }
+
+    public long total() {
+        return total;
+    }
+
+    public CountMinSketch<T> merge(CountMinSketch<T> other) {
+        if (other.depth != depth || other.width != width) {
+            throw new IllegalArgumentException("Sketch shapes differ");
+        }
+        for (int row = 0; row < depth; row++) {
+            for (int column = 0; column < width; column++) {
+                counters[row][column] += other.counters[row][column];
+            }
+        }
+        total += other.total;
+        Set<T> items = new HashSet<>(candidates.keySet());
+        items.addAll(other.candidates.keySet());
+        candidates.clear();
+        leastCandidate = 0;
+        for (T item : items) {
+            offerCandidate(item, estimate(item));
+        }
+        return this;
+    }
+
+    /**
+     * @return up to {@code k} most frequent items with their estimated counts, most frequent first
+     */
+    public LinkedHashMap<T, Long> heavyHitters() {
+        List<Map.Entry<T, Long>> entries = new ArrayList<>(candidates.entrySet());
+        entries.sort(Map.Entry.<T, Long>comparingByValue().reversed());
+        LinkedHashMap<T, Long> result = new LinkedHashMap<>();
+        for (Map.Entry<T, Long> entry : entries) {
+            result.put(entry.getKey(), entry.getValue());
+        }
+        return result;
+    }
+
+    /**
+     * Rough retained size in bytes: the sketch, its counters and candidate entries, without the candidate items.
+     */
+    public long estimatedBytes() {
+        return 48 + 16 + depth * (4 + 16 + width * 8L) + 48 + 16 + candidates.size() * (32 + 4 + 16L);
+    }
+
+    private void offerCandidate(T item, long estimate) {
+        if (k == 0) {
+            return;
+        }
+        if (candidates.containsKey(item) || candidates.size() < k) {
+            candidates.put(item, estimate);
+            return;
+        }
+        if (estimate <= leastCandidate) {
+            return;
+        }
+        T least = null;
+        long leastEstimate = Long.MAX_VALUE;
+        long secondLeastEstimate = Long.MAX_VALUE;
+        for (Map.Entry<T, Long> candidate : candidates.entrySet()) {
+            long value = candidate.getValue();
+            if (value < leastEstimate) {
+                secondLeastEstimate = leastEstimate;
+                least = candidate.getKey();
+                leastEstimate = value;
+            } else if (value < secondLeastEstimate) {
+                secondLeastEstimate = value;
+            }
+        }
+        if (estimate > leastEstimate) {
+            candidates.remove(least);
+            candidates.put(item, estimate);
+            leastCandidate = Math.min(secondLeastEstimate, estimate);
+        } else {
+            leastCandidate = leastEstimate;
+        }
+    }
+
+    private int bucket(long hash, int row) {
+        long h = Hashing.mix64(hash + row * 0x9E3779B97F4A7C15L);
+        return (int) ((h >>> 1) % width);
+    }
+}
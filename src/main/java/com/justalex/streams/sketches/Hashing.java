@@ -0,0 +1,33 @@
+package com.justalex.streams.sketches;
+
+final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * 64 bit hash, strings are hashed over their chars since 32 bit {@code hashCode()} collides too often
+     * at billions of distinct values.
+     */
+    static long hash64(Object value) {
+        if (value instanceof CharSequence) {
+            CharSequence chars = (CharSequence) value;
+            long h = 0xcbf29ce484222325L;
+            for (int i = 0; i < chars.length(); i++) {
+                h ^= chars.charAt(i);
+                h *= 0x100000001b3L;
+            }
+            return mix64(h);
+        }
+        return mix64(value == null ? 0 : value.hashCode());
+    }
+
+    static long mix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,231 @@
+package com.justalex.streams.sketches;
+
+import java.util.Arrays;
+
+/**
+ * Merging t-digest for quantiles of a numeric stream, e.g. age percentiles.
+ * Values are buffered and periodically merged into at most about {@code compression} centroids,
+ * centroids near the tails stay small so extreme quantiles remain accurate. Digests merge by re-compressing
+ * their combined centroids.
+ */
+public class TDigest {
+
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private final double compression;
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int buffered;
+
+    private double totalWeight;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public TDigest() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    public TDigest(double compression) {
+        if (compression < 10) {
+            throw new IllegalArgumentException("Compression must be at least 10: " + compression);
+        }
+        this.compression = compression;
+        int capacity = (int) Math.ceil(compression) * 2 + 10;
+        means = new double[capacity];
+        weights = new double[capacity];
+        bufferMeans = new double[capacity * 5];
+        bufferWeights = new double[capacity * 5];
+    }
+
+    public void add(double value) {
+        add(value, 1);
+    }
+
+    public void add(double value, double weight) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("NaN can't be added to a digest");
+        }
+        if (buffered == bufferMeans.length) {
+            compress();
+        }
+        bufferMeans[buffered] = value;
+        bufferWeights[buffered] = weight;
+        buffered++;
+        totalWeight += weight;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    public TDigest merge(TDigest other) {
+        other.compress();
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        // the centroids only carry means, the extremes come from the other digest itself
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public long size() {
+        return Math.round(totalWeight);
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    /**
+     * @param q quantile in {@code [0, 1]}, 0.5 is the median
+     * @return estimated value at the quantile, {@code NaN} for an empty digest
+     */
+    public double quantile(double q) {
+        if (q < 0 || q > 1) {
+            throw new IllegalArgumentException("Quantile out of [0, 1]: " + q);
+        }
+        compress();
+        if (centroids == 0) {
+            return Double.NaN;
+        }
+        if (centroids == 1) {
+            return means[0];
+        }
+        double target = q * totalWeight;
+        if (target < weights[0] / 2) {
+            return min + (means[0] - min) * target / (weights[0] / 2);
+        }
+        double cumulative = weights[0] / 2;
+        for (int i = 0; i < centroids - 1; i++) {
+            double step = (weights[i] + weights[i + 1]) / 2;
+            if (cumulative + step >= target) {
+                return means[i] + (means[i + 1] - means[i]) * (target - cumulative) / step;
+            }
+            cumulative += step;
+        }
+        double lastHalf = weights[centroids - 1] / 2;
+        return means[centroids - 1] + (max - means[centroids - 1]) * Math.min(1, (target - cumulative) / lastHalf);
+    }
+
+    /**
+     * Rough retained size in bytes: the digest, its centroid arrays and its buffer.
+     */
+    public long estimatedBytes() {
+        return 64 + 4 * 16 + 8L * (means.length + weights.length + bufferMeans.length + bufferWeights.length);
+    }
+
+    private void compress() {
+        if (buffered == 0) {
+            return;
+        }
+        int count = centroids + buffered;
+        double[] allMeans = new double[count];
+        double[] allWeights = new double[count];
+        System.arraycopy(means, 0, allMeans, 0, centroids);
+        System.arraycopy(weights, 0, allWeights, 0, centroids);
+        System.arraycopy(bufferMeans, 0, allMeans, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, centroids, buffered);
+        buffered = 0;
+        sortByMean(allMeans, allWeights, count);
+
+        centroids = 0;
+        double weightSoFar = 0;
+        double currentMean = allMeans[0];
+        double currentWeight = allWeights[0];
+        double limit = totalWeight * kInverse(k(0) + 1);
+        for (int i = 1; i < count; i++) {
+            if (weightSoFar + currentWeight + allWeights[i] <= limit) {
+                currentWeight += allWeights[i];
+                currentMean += (allMeans[i] - currentMean) * allWeights[i] / currentWeight;
+            } else {
+                weightSoFar += currentWeight;
+                appendCentroid(currentMean, currentWeight);
+                limit = totalWeight * kInverse(k(weightSoFar / totalWeight) + 1);
+                currentMean = allMeans[i];
+                currentWeight = allWeights[i];
+            }
+        }
+        appendCentroid(currentMean, currentWeight);
+    }
+
+    private void appendCentroid(double mean, double weight) {
+        if (centroids == means.length) {
+            means = Arrays.copyOf(means, centroids * 2);
+            weights = Arrays.copyOf(weights, centroids * 2);
+        }
+        means[centroids] = mean;
+        weights[centroids] = weight;
+        centroids++;
+    }
+
+    /**
+     * k1 scale function, centroids may span one unit of k
+     */
+    private double k(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+
+    private double kInverse(double k) {
+        if (k >= compression / 4) {
+            return 1;
+        }
+        return (Math.sin(k * 2 * Math.PI / compression) + 1) / 2;
+    }
+
+    private static void sortByMean(double[] means, double[] weights, int count) {
+        quickSort(means, weights, 0, count - 1);
+    }
+
+    private static void quickSort(double[] means, double[] weights, int from, int to) {
+        while (from < to) {
+            double pivot = means[(from + to) >>> 1];
+            int i = from;
+            int j = to;
+            while (i <= j) {
+                while (means[i] < pivot) {
+                    i++;
+                }
+                while (means[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(means, i, j);
+                    swap(weights, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // recurse into the smaller half to bound the stack depth
+            if (j - from < to - i) {
+                quickSort(means, weights, from, j);
+                from = i;
+            } else {
+                quickSort(means, weights, i, to);
+                to = j;
+            }
+        }
+    }
+
+    private static void swap(double[] array, int i, int j) {
+        double tmp = array[i];
+        array[i] = array[j];
+        array[j] = tmp;
+    }
+
+    @Override
+    public String toString() {
+        return "TDigest{" +
+            "size=" + size() +
+            ", min=" + min +
+            ", median=" + quantile(0.5) +
+            ", max=" + max +
+            '}';
+    }
+}
@@ -0,0 +1,57 @@
+package com.justalex.streams.spliterators;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+class ArraySpliterator<T> implements Spliterator<T> {
+
+    private final T[] array;
+    private int index;
+    private final int end;
+
+    ArraySpliterator(T[] array, int index, int end) {
+        this.array = array;
+        this.index = index;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index >= end) {
+            return false;
+        }
+        action.accept(array[index++]);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        T[] a = array;
+        int hi = end;
+        for (int i = index; i < hi; i++) {
+            action.accept(a[i]);
+        }
+        index = hi;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        int mid = (index + end) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+        ArraySpliterator<T> prefix = new ArraySpliterator<>(array, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return UserSpliterators.CHARACTERISTICS;
+    }
+}
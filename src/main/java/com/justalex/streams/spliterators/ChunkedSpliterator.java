@@ -0,0 +1,99 @@
+package com.justalex.streams.spliterators;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator over a list of equally sized chunks, addressed by a global element index.
+ */
+class ChunkedSpliterator<T> implements Spliterator<T> {
+
+    private final List<Object[]> chunks;
+    private final int chunkSize;
+    private long index;
+    private final long end;
+
+    ChunkedSpliterator(List<Object[]> chunks, int chunkSize, long index, long end) {
+        this.chunks = chunks;
+        this.chunkSize = chunkSize;
+        this.index = index;
+        this.end = end;
+    }
+
+    static <T> ChunkedSpliterator<T> drain(Iterator<? extends T> iterator, int chunkSize) {
+        List<Object[]> chunks = new ArrayList<>();
+        Object[] chunk = new Object[chunkSize];
+        int inChunk = 0;
+        long size = 0;
+        while (iterator.hasNext()) {
+            if (inChunk == chunkSize) {
+                chunks.add(chunk);
+                chunk = new Object[chunkSize];
+                inChunk = 0;
+            }
+            chunk[inChunk++] = Objects.requireNonNull(iterator.next(), "null elements are not supported");
+            size++;
+        }
+        if (inChunk > 0) {
+            chunks.add(chunk);
+        }
+        return new ChunkedSpliterator<>(chunks, chunkSize, 0, size);
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index >= end) {
+            return false;
+        }
+        action.accept(elementAt(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        while (index < end) {
+            int chunkIndex = (int) (index / chunkSize);
+            int from = (int) (index % chunkSize);
+            int to = (int) Math.min(chunkSize, end - (long) chunkIndex * chunkSize);
+            Object[] chunk = chunks.get(chunkIndex);
+            for (int i = from; i < to; i++) {
+                action.accept(cast(chunk[i]));
+            }
+            index += to - from;
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        long mid = (index + end) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+        ChunkedSpliterator<T> prefix = new ChunkedSpliterator<>(chunks, chunkSize, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return UserSpliterators.CHARACTERISTICS;
+    }
+
+    private T elementAt(long i) {
+        return cast(chunks.get((int) (i / chunkSize))[(int) (i % chunkSize)]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(Object element) {
+        return (T) element;
+    }
+}
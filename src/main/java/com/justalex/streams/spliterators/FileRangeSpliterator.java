@@ -0,0 +1,106 @@
+package com.justalex.streams.spliterators;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Spliterator over a range of fixed width records of a file. Splits never share a buffer,
+ * records are read in batches with positional reads so the channel position is never touched.
+ */
+class FileRangeSpliterator<T> implements Spliterator<T> {
+
+    private static final int BATCH_RECORDS = 1024;
+    private static final long MIN_SPLIT_RECORDS = 1024;
+
+    private final FileChannel channel;
+    private final long dataOffset;
+    private final int recordSize;
+    private final Function<ByteBuffer, T> decoder;
+    private long index;
+    private final long end;
+    private ByteBuffer buffer;
+
+    private FileRangeSpliterator(FileChannel channel, long dataOffset, int recordSize, Function<ByteBuffer, T> decoder, long index, long end) {
+        this.channel = channel;
+        this.dataOffset = dataOffset;
+        this.recordSize = recordSize;
+        this.decoder = decoder;
+        this.index = index;
+        this.end = end;
+    }
+
+    static <T> FileRangeSpliterator<T> of(FileChannel channel, long dataOffset, int recordSize, Function<ByteBuffer, T> decoder) {
+        if (recordSize <= 0) {
+            throw new IllegalArgumentException("Record size must be positive: " + recordSize);
+        }
+        try {
+            long records = (channel.size() - dataOffset) / recordSize;
+            return new FileRangeSpliterator<>(channel, dataOffset, recordSize, decoder, 0, Math.max(0, records));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index >= end) {
+            return false;
+        }
+        if (buffer == null || !buffer.hasRemaining()) {
+            fill();
+        }
+        index++;
+        action.accept(decoder.apply(buffer));
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if (buffer != null && buffer.hasRemaining()) {
+            return null;
+        }
+        long mid = (index + end) >>> 1;
+        if (mid - index < MIN_SPLIT_RECORDS) {
+            return null;
+        }
+        FileRangeSpliterator<T> prefix = new FileRangeSpliterator<>(channel, dataOffset, recordSize, decoder, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return UserSpliterators.CHARACTERISTICS;
+    }
+
+    private void fill() {
+        int records = (int) Math.min(BATCH_RECORDS, end - index);
+        if (buffer == null) {
+            buffer = ByteBuffer.allocate(BATCH_RECORDS * recordSize);
+        }
+        buffer.clear().limit(records * recordSize);
+        long position = dataOffset + index * recordSize;
+        try {
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("Unexpected end of file at " + position);
+                }
+                position += read;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buffer.flip();
+    }
+}
@@ -0,0 +1,114 @@
+package com.justalex.streams.spliterators;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongFunction;
+import java.util.function.LongToIntFunction;
+
+/**
+ * Spliterator over {@code [index, end)} of a random access source given as an index to element function.
+ */
+class IndexRangeSpliterator<T> implements Spliterator<T> {
+
+    private final LongFunction<? extends T> elementAt;
+    private long index;
+    private final long end;
+
+    IndexRangeSpliterator(LongFunction<? extends T> elementAt, long index, long end) {
+        this.elementAt = elementAt;
+        this.index = index;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index >= end) {
+            return false;
+        }
+        action.accept(elementAt.apply(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        long hi = end;
+        for (long i = index; i < hi; i++) {
+            action.accept(elementAt.apply(i));
+        }
+        index = hi;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        long mid = (index + end) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+        IndexRangeSpliterator<T> prefix = new IndexRangeSpliterator<>(elementAt, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return UserSpliterators.CHARACTERISTICS;
+    }
+
+    static class Ints implements Spliterator.OfInt {
+
+        private final LongToIntFunction intAt;
+        private long index;
+        private final long end;
+
+        Ints(LongToIntFunction intAt, long index, long end) {
+            this.intAt = intAt;
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (index >= end) {
+                return false;
+            }
+            action.accept(intAt.applyAsInt(index++));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            long hi = end;
+            for (long i = index; i < hi; i++) {
+                action.accept(intAt.applyAsInt(i));
+            }
+            index = hi;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            long mid = (index + end) >>> 1;
+            if (mid <= index) {
+                return null;
+            }
+            Ints prefix = new Ints(intAt, index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return UserSpliterators.CHARACTERISTICS;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.justalex.streams.spliterators;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+class ListSpliterator<T> implements Spliterator<T> {
+
+    private final List<T> list;
+    private int index;
+    private final int end;
+
+    ListSpliterator(List<T> list, int index, int end) {
+        this.list = list;
+        this.index = index;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        if (index >= end) {
+            return false;
+        }
+        action.accept(list.get(index++));
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> action) {
+        List<T> l = list;
+        int hi = end;
+        for (int i = index; i < hi; i++) {
+            action.accept(l.get(i));
+        }
+        index = hi;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        int mid = (index + end) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+        ListSpliterator<T> prefix = new ListSpliterator<>(list, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return UserSpliterators.CHARACTERISTICS;
+    }
+}
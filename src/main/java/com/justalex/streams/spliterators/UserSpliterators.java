@@ -0,0 +1,77 @@
+package com.justalex.streams.spliterators;
+
+import com.justalex.streams.users.User;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+import java.util.function.LongToIntFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Even splitting sources for user streams. All of them report {@code SIZED | SUBSIZED | IMMUTABLE | NONNULL | ORDERED}
+ * and split in halves, unlike the arithmetic batches of an iterator based spliterator.
+ * The underlying data must not be modified, nor contain {@code null}s, while a stream is running over it.
+ */
+public final class UserSpliterators {
+
+    static final int CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED
+        | Spliterator.IMMUTABLE | Spliterator.NONNULL;
+
+    static final int DEFAULT_CHUNK_SIZE = 4096;
+
+    private UserSpliterators() {
+    }
+
+    public static Spliterator<User> of(User[] users) {
+        return new ArraySpliterator<>(users, 0, users.length);
+    }
+
+    /**
+     * Random access lists are split by index, any other collection (linked, concurrent, ...) is first
+     * drained through its iterator into chunks of {@value #DEFAULT_CHUNK_SIZE} which are then split evenly.
+     */
+    public static Spliterator<User> of(Collection<User> users) {
+        if (users instanceof List && users instanceof RandomAccess) {
+            return new ListSpliterator<>((List<User>) users, 0, users.size());
+        }
+        return ChunkedSpliterator.drain(users.iterator(), DEFAULT_CHUNK_SIZE);
+    }
+
+    public static Spliterator<User> of(Iterator<User> users) {
+        return ChunkedSpliterator.drain(users, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Spliterator over a file of fixed width records, each split reads its own record range with positional reads.
+     *
+     * @param channel    open channel, positional reads allow sharing it between splits
+     * @param dataOffset byte offset of the first record
+     * @param recordSize width of a record in bytes
+     * @param decoder    reads one record from the buffer, advancing its position by {@code recordSize}
+     */
+    public static Spliterator<User> ofFile(FileChannel channel, long dataOffset, int recordSize, Function<ByteBuffer, User> decoder) {
+        return FileRangeSpliterator.of(channel, dataOffset, recordSize, decoder);
+    }
+
+    /**
+     * Spliterator over the {@code size} elements of a random access source, such as the records of a mapped file.
+     */
+    public static Spliterator<User> ofIndexRange(long size, LongFunction<User> userAt) {
+        return new IndexRangeSpliterator<>(userAt, 0, size);
+    }
+
+    /**
+     * Primitive variant of {@link #ofIndexRange(long, LongFunction)}, e.g. for an age column.
+     */
+    public static Spliterator.OfInt ofIndexRangeInt(long size, LongToIntFunction intAt) {
+        return new IndexRangeSpliterator.Ints(intAt, 0, size);
+    }
+
+    public static Stream<User> stream(Spliterator<User> spliterator, boolean parallel) {
+        return StreamSupport.stream(spliterator, parallel);
+    }
+}
@@ -1,28 +1,53 @@
 package com.justalex.streams.users;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 public class NameAge {
 
-    String name;
-    int age;
+    private static final ThreadLocal<Probe> INTERNER_PROBE = ThreadLocal.withInitial(Probe::new);
+
+    final String name;
+    final int age;
+    private final int hash;
 
     public NameAge(String name, int age) {
         this.name = name;
         this.age = age;
+        this.hash = hash(name, age);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAge() {
+        return age;
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
+        if (o instanceof Probe) return o.equals(this);
         if (o == null || getClass() != o.getClass()) return false;
 
         NameAge nameAge = (NameAge) o;
 
-        if (age != nameAge.age) return false;
-        return name != null ? name.equals(nameAge.name) : nameAge.name == null;
+        if (hash != nameAge.hash) return false;
+        return matches(nameAge.name, nameAge.age);
     }
 
     @Override
     public int hashCode() {
+        return hash;
+    }
+
+    boolean matches(String name, int age) {
+        if (this.age != age) return false;
+        return this.name != null ? this.name.equals(name) : name == null;
+    }
+
+    static int hash(String name, int age) {
         int result = name != null ? name.hashCode() : 0;
         result = 31 * result + age;
         return result;
@@ -35,4 +60,80 @@ public class NameAge {
             ", age=" + age +
             '}';
     }
+
+    /**
+     * Mutable lookup key that is equal to the {@link NameAge} with the same name and age.
+     * Reuse one probe per thread to look up existing buckets of a {@code Map<NameAge, ?>} without allocating a key.
+     * A probe must never be stored in a map.
+     */
+    public static final class Probe {
+
+        private String name;
+        private int age;
+        private int hash;
+
+        public Probe set(String name, int age) {
+            this.name = name;
+            this.age = age;
+            this.hash = NameAge.hash(name, age);
+            return this;
+        }
+
+        public NameAge toKey() {
+            return new NameAge(name, age);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o instanceof Probe) {
+                Probe probe = (Probe) o;
+                return hash == probe.hash && age == probe.age && (name != null ? name.equals(probe.name) : probe.name == null);
+            }
+            if (o == null || o.getClass() != NameAge.class) return false;
+
+            NameAge nameAge = (NameAge) o;
+            return hash == nameAge.hash && nameAge.matches(name, age);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public String toString() {
+            return "NameAge.Probe{" +
+                "name='" + name + '\'' +
+                ", age=" + age +
+                '}';
+        }
+    }
+
+    /**
+     * Pool of shared {@link NameAge} instances owned by its caller, e.g. one per import job.
+     * Keys stay reachable as long as the interner does, drop it to release them.
+     * A lookup of an already pooled key doesn't allocate. Thread safe.
+     */
+    public static final class Interner {
+
+        private final ConcurrentMap<NameAge, NameAge> pool = new ConcurrentHashMap<>();
+
+        /**
+         * Interned instance for the given name and age, repeated keys share one object.
+         */
+        public NameAge intern(String name, int age) {
+            NameAge pooled = pool.get(INTERNER_PROBE.get().set(name, age));
+            if (pooled != null) {
+                return pooled;
+            }
+            NameAge created = new NameAge(name, age);
+            pooled = pool.putIfAbsent(created, created);
+            return pooled != null ? pooled : created;
+        }
+
+        public int size() {
+            return pool.size();
+        }
+    }
 }
@@ -39,28 +39,30 @@ public class User {
     @Override
     public String toString() {
         return "User{" +
-            "name='" + name + '\'' +
-            ", age=" + age +
-            ", gender=" + gender +
+            "name='" + getName() + '\'' +
+            ", age=" + getAge() +
+            ", gender=" + getGender() +
             '}';
     }
 
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (!(o instanceof User)) return false;
 
         User user = (User) o;
 
-        if (age != user.age) return false;
-        if (name != null ? !name.equals(user.name) : user.name != null) return false;
-        return gender == user.gender;
+        if (getAge() != user.getAge()) return false;
+        if (getName() != null ? !getName().equals(user.getName()) : user.getName() != null) return false;
+        return getGender() == user.getGender();
     }
 
     @Override
     public int hashCode() {
+        String name = getName();
+        Gender gender = getGender();
         int result = name != null ? name.hashCode() : 0;
-        result = 31 * result + age;
+        result = 31 * result + getAge();
         result = 31 * result + (gender != null ? gender.hashCode() : 0);
         return result;
     }
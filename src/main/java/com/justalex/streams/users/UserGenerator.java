@@ -0,0 +1,235 @@
+package com.justalex.streams.users;
+
+import java.util.SplittableRandom;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Lazy, reproducible source of synthetic users.
+ * Rows are produced in chunks of {@value #CHUNK_SIZE}, each chunk drawing from its own {@link SplittableRandom}
+ * seeded by the generator seed and the chunk index. Parallel streams split on chunk boundaries,
+ * so the same seed gives the same rows no matter how the stream is split or how many cores run it.
+ */
+public class UserGenerator {
+
+    static final int CHUNK_SIZE = 1024;
+    private static final int NAME_POOL_LIMIT = 1 << 16;
+
+    private final long seed;
+    private final int distinctNames;
+    private final int minAge;
+    private final int maxAge;
+    private final double ageMean;
+    private final double ageStdDev;
+    private final boolean normalAges;
+    private final double maleRatio;
+    private final String[] namePool;
+
+    private UserGenerator(Builder builder) {
+        this.seed = builder.seed;
+        this.distinctNames = builder.distinctNames;
+        this.minAge = builder.minAge;
+        this.maxAge = builder.maxAge;
+        this.ageMean = builder.ageMean;
+        this.ageStdDev = builder.ageStdDev;
+        this.normalAges = builder.normalAges;
+        this.maleRatio = builder.maleRatio;
+        this.namePool = new String[Math.min(distinctNames, NAME_POOL_LIMIT)];
+        for (int i = 0; i < namePool.length; i++) {
+            namePool[i] = "User" + i;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Lazy sized stream of {@code count} users, nothing is materialized up front.
+     */
+    public Stream<User> users(long count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative count: " + count);
+        }
+        return StreamSupport.stream(new ChunkSpliterator(0, count), false);
+    }
+
+    /**
+     * Appends {@code count} users straight into the table columns, without creating {@link User} objects.
+     * Rows are the same as the first {@code count} elements of {@link #users(long)}.
+     */
+    public UserTable fill(UserTable table, int count) {
+        SplittableRandom random = null;
+        for (int row = 0; row < count; row++) {
+            if (row % CHUNK_SIZE == 0) {
+                random = chunkRandom(row / CHUNK_SIZE);
+            }
+            table.add(nextName(random), nextAge(random), nextGender(random));
+        }
+        return table;
+    }
+
+    private SplittableRandom chunkRandom(long chunk) {
+        return new SplittableRandom(seed ^ (chunk * 0x9E3779B97F4A7C15L));
+    }
+
+    private User nextUser(SplittableRandom random) {
+        return new User(nextName(random), nextAge(random), nextGender(random));
+    }
+
+    private String nextName(SplittableRandom random) {
+        int id = random.nextInt(distinctNames);
+        return id < namePool.length ? namePool[id] : "User" + id;
+    }
+
+    private int nextAge(SplittableRandom random) {
+        if (!normalAges) {
+            return random.nextInt(minAge, maxAge + 1);
+        }
+        long age = Math.round(ageMean + ageStdDev * nextGaussian(random));
+        return (int) Math.max(minAge, Math.min(maxAge, age));
+    }
+
+    private Gender nextGender(SplittableRandom random) {
+        return random.nextDouble() < maleRatio ? Gender.MALE : Gender.FEMALE;
+    }
+
+    private static double nextGaussian(SplittableRandom random) {
+        // Marsaglia polar method, kept instead of SplittableRandom.nextGaussian() so generated ages stay the same across JDKs
+        double v1;
+        double v2;
+        double s;
+        do {
+            v1 = 2 * random.nextDouble() - 1;
+            v2 = 2 * random.nextDouble() - 1;
+            s = v1 * v1 + v2 * v2;
+        } while (s >= 1 || s == 0);
+        return v1 * Math.sqrt(-2 * Math.log(s) / s);
+    }
+
+    private class ChunkSpliterator implements Spliterator<User> {
+
+        private long index;
+        private final long end;
+        private SplittableRandom random;
+
+        ChunkSpliterator(long index, long end) {
+            this.index = index;
+            this.end = end;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super User> action) {
+            if (index >= end) {
+                return false;
+            }
+            if (random == null || index % CHUNK_SIZE == 0) {
+                random = chunkRandom(index / CHUNK_SIZE);
+            }
+            index++;
+            action.accept(nextUser(random));
+            return true;
+        }
+
+        @Override
+        public Spliterator<User> trySplit() {
+            long firstChunk = index / CHUNK_SIZE;
+            long chunks = (end - 1) / CHUNK_SIZE - firstChunk + 1;
+            if (index % CHUNK_SIZE != 0 || chunks < 2) {
+                return null;
+            }
+            long mid = (firstChunk + chunks / 2) * CHUNK_SIZE;
+            ChunkSpliterator prefix = new ChunkSpliterator(index, mid);
+            index = mid;
+            return prefix;
+        }
+
+        @Override
+        public long estimateSize() {
+            return end - index;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+        }
+    }
+
+    public static class Builder {
+
+        private long seed = 42L;
+        private int distinctNames = 1000;
+        private int minAge = 0;
+        private int maxAge = 100;
+        private double ageMean;
+        private double ageStdDev;
+        private boolean normalAges;
+        private double maleRatio = 0.5;
+
+        private Builder() {
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Builder distinctNames(int distinctNames) {
+            if (distinctNames < 1) {
+                throw new IllegalArgumentException("At least one name is required: " + distinctNames);
+            }
+            this.distinctNames = distinctNames;
+            return this;
+        }
+
+        /**
+         * Ages uniformly distributed in {@code [minAge, maxAge]}, the default is {@code [0, 100]}.
+         */
+        public Builder uniformAges(int minAge, int maxAge) {
+            checkAgeRange(minAge, maxAge);
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+            this.normalAges = false;
+            return this;
+        }
+
+        /**
+         * Normally distributed ages, clamped to {@code [minAge, maxAge]}.
+         */
+        public Builder normalAges(double mean, double stdDev, int minAge, int maxAge) {
+            checkAgeRange(minAge, maxAge);
+            if (stdDev < 0) {
+                throw new IllegalArgumentException("Negative standard deviation: " + stdDev);
+            }
+            this.ageMean = mean;
+            this.ageStdDev = stdDev;
+            this.minAge = minAge;
+            this.maxAge = maxAge;
+            this.normalAges = true;
+            return this;
+        }
+
+        /**
+         * Share of {@link Gender#MALE} users in {@code [0, 1]}, the default is an even split.
+         */
+        public Builder maleRatio(double maleRatio) {
+            if (maleRatio < 0 || maleRatio > 1) {
+                throw new IllegalArgumentException("Male ratio out of [0, 1]: " + maleRatio);
+            }
+            this.maleRatio = maleRatio;
+            return this;
+        }
+
+        public UserGenerator build() {
+            return new UserGenerator(this);
+        }
+
+        private static void checkAgeRange(int minAge, int maxAge) {
+            if (minAge < 0 || minAge > maxAge || maxAge == Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Invalid age range: [" + minAge + ", " + maxAge + "]");
+            }
+        }
+    }
+}
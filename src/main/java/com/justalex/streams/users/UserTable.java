@@ -0,0 +1,267 @@
+package com.justalex.streams.users;
+
+import java.util.*;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Column oriented storage for users: ages in an {@code int[]}, genders as ordinals in a {@code byte[]}
+ * and names dictionary encoded into an {@code int[]} of ids.
+ * Aggregations can run over the primitive columns, {@link #row(int)} gives a {@link User} look of a single row.
+ */
+public class UserTable {
+
+    private static final Gender[] GENDERS = Gender.values();
+    private static final byte NO_GENDER = -1;
+    private static final int NO_NAME = -1;
+
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private String[] names;
+    private int nameCount;
+
+    private int[] nameColumn;
+    private int[] ageColumn;
+    private byte[] genderColumn;
+    private int size;
+    private long modificationCount;
+
+    public UserTable() {
+        this(16);
+    }
+
+    public UserTable(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Negative capacity: " + capacity);
+        }
+        nameColumn = new int[capacity];
+        ageColumn = new int[capacity];
+        genderColumn = new byte[capacity];
+        names = new String[16];
+    }
+
+    public static UserTable of(List<User> users) {
+        UserTable table = new UserTable(users.size());
+        table.addAll(users);
+        return table;
+    }
+
+    public void addAll(List<User> users) {
+        ensureCapacity(size + users.size());
+        for (User user : users) {
+            add(user.getName(), user.getAge(), user.getGender());
+        }
+    }
+
+    public int add(User user) {
+        return add(user.getName(), user.getAge(), user.getGender());
+    }
+
+    public int add(String name, int age, Gender gender) {
+        ensureCapacity(size + 1);
+        int row = size++;
+        nameColumn[row] = encodeName(name);
+        ageColumn[row] = age;
+        genderColumn[row] = encodeGender(gender);
+        modificationCount++;
+        return row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Number of rows added or changed so far, lets derived structures tell whether they are still up to date.
+     */
+    public long modificationCount() {
+        return modificationCount;
+    }
+
+    public String getName(int row) {
+        int id = nameColumn[checkRow(row)];
+        return id == NO_NAME ? null : names[id];
+    }
+
+    public int getNameId(int row) {
+        return nameColumn[checkRow(row)];
+    }
+
+    public int getAge(int row) {
+        return ageColumn[checkRow(row)];
+    }
+
+    public Gender getGender(int row) {
+        byte ordinal = genderColumn[checkRow(row)];
+        return ordinal == NO_GENDER ? null : GENDERS[ordinal];
+    }
+
+    public int getGenderOrdinal(int row) {
+        return genderColumn[checkRow(row)];
+    }
+
+    public void setName(int row, String name) {
+        nameColumn[checkRow(row)] = encodeName(name);
+        modificationCount++;
+    }
+
+    public void setAge(int row, int age) {
+        ageColumn[checkRow(row)] = age;
+        modificationCount++;
+    }
+
+    public void setGender(int row, Gender gender) {
+        genderColumn[checkRow(row)] = encodeGender(gender);
+        modificationCount++;
+    }
+
+    /**
+     * Number of distinct names stored in the dictionary, name ids are in range {@code [0, distinctNames())}.
+     */
+    public int distinctNames() {
+        return nameCount;
+    }
+
+    public String nameOf(int nameId) {
+        if (nameId < 0 || nameId >= nameCount) {
+            throw new IndexOutOfBoundsException("Name id: " + nameId + ", distinct names: " + nameCount);
+        }
+        return names[nameId];
+    }
+
+    public IntStream rows() {
+        return IntStream.range(0, size);
+    }
+
+    public IntStream ages() {
+        return Arrays.stream(ageColumn, 0, size);
+    }
+
+    public IntStream ages(Gender gender) {
+        byte ordinal = encodeGender(gender);
+        return rows().filter(row -> genderColumn[row] == ordinal).map(row -> ageColumn[row]);
+    }
+
+    /**
+     * Columnar equivalent of {@code groupingBy(User::getGender, summarizingInt(User::getAge))}.
+     */
+    public EnumMap<Gender, IntSummaryStatistics> summarizeAgeByGender() {
+        IntSummaryStatistics[] stats = new IntSummaryStatistics[GENDERS.length];
+        for (int row = 0; row < size; row++) {
+            byte ordinal = genderColumn[row];
+            if (ordinal == NO_GENDER) {
+                continue;
+            }
+            if (stats[ordinal] == null) {
+                stats[ordinal] = new IntSummaryStatistics();
+            }
+            stats[ordinal].accept(ageColumn[row]);
+        }
+        EnumMap<Gender, IntSummaryStatistics> result = new EnumMap<>(Gender.class);
+        for (Gender gender : GENDERS) {
+            if (stats[gender.ordinal()] != null) {
+                result.put(gender, stats[gender.ordinal()]);
+            }
+        }
+        return result;
+    }
+
+    public User row(int row) {
+        return new Row(this, checkRow(row));
+    }
+
+    /**
+     * Stream of row views, each element reads and writes through to the table columns.
+     */
+    public Stream<User> users() {
+        return rows().mapToObj(row -> new Row(this, row));
+    }
+
+    /**
+     * Copies every row into a standalone {@link User}.
+     */
+    public List<User> toList() {
+        List<User> users = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            users.add(new User(getName(row), ageColumn[row], getGender(row)));
+        }
+        return users;
+    }
+
+    private int encodeName(String name) {
+        if (name == null) {
+            return NO_NAME;
+        }
+        Integer id = nameIds.get(name);
+        if (id == null) {
+            if (nameCount == names.length) {
+                names = Arrays.copyOf(names, nameCount * 2);
+            }
+            id = nameCount++;
+            names[id] = name;
+            nameIds.put(name, id);
+        }
+        return id;
+    }
+
+    private static byte encodeGender(Gender gender) {
+        return gender == null ? NO_GENDER : (byte) gender.ordinal();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > ageColumn.length) {
+            int newCapacity = Math.max(capacity, ageColumn.length + (ageColumn.length >> 1) + 1);
+            nameColumn = Arrays.copyOf(nameColumn, newCapacity);
+            ageColumn = Arrays.copyOf(ageColumn, newCapacity);
+            genderColumn = Arrays.copyOf(genderColumn, newCapacity);
+        }
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row: " + row + ", size: " + size);
+        }
+        return row;
+    }
+
+    private static class Row extends User {
+
+        private final UserTable table;
+        private final int row;
+
+        Row(UserTable table, int row) {
+            super(null, 0, null);
+            this.table = table;
+            this.row = row;
+        }
+
+        @Override
+        public String getName() {
+            return table.getName(row);
+        }
+
+        @Override
+        public void setName(String name) {
+            table.setName(row, name);
+        }
+
+        @Override
+        public int getAge() {
+            return table.getAge(row);
+        }
+
+        @Override
+        public void setAge(int age) {
+            table.setAge(row, age);
+        }
+
+        @Override
+        public Gender getGender() {
+            return table.getGender(row);
+        }
+
+        @Override
+        public void setGender(Gender gender) {
+            table.setGender(row, gender);
+        }
+    }
+}
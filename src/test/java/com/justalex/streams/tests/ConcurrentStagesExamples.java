@@ -0,0 +1,113 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.justalex.streams.concurrent.ConcurrentStages.mapConcurrent;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summingInt;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrentStagesExamples {
+
+    /**
+     * Blocking enrichment feeding a grouping collector, the 20ms lookups overlap instead of running one by one
+     */
+    @Test
+    void testBlockingEnrichment() {
+        List<User> users = UserGenerator.builder().build().users(200).collect(Collectors.toList());
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+
+        Map<Gender, Integer> ageInTenYearsByGender = mapConcurrent(users.stream(), user -> {
+            maxSeen.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(20);
+            inFlight.decrementAndGet();
+            return new User(user.getName(), user.getAge() + 10, user.getGender());
+        }, 100).collect(groupingBy(User::getGender, summingInt(User::getAge)));
+
+        assertTrue(maxSeen.get() > 1, "lookups didn't overlap");
+        assertTrue(maxSeen.get() <= 100);
+        Map<Gender, Integer> expected = users.stream().collect(groupingBy(User::getGender, summingInt(user -> user.getAge() + 10)));
+        assertEquals(expected, ageInTenYearsByGender);
+    }
+
+    @Test
+    void testOrderAndBackpressure() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxSeen = new AtomicInteger();
+
+        List<Integer> result = mapConcurrent(IntStream.range(0, 100).boxed(), i -> {
+            maxSeen.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleep(100 - i);
+            inFlight.decrementAndGet();
+            return i * 2;
+        }, 8).collect(Collectors.toList());
+
+        assertEquals(IntStream.range(0, 100).map(i -> i * 2).boxed().collect(Collectors.toList()), result);
+        assertTrue(maxSeen.get() <= 8);
+
+        List<Integer> unordered = mapConcurrent(IntStream.range(0, 50).boxed(), i -> i, 4, false).sorted().collect(Collectors.toList());
+        assertEquals(IntStream.range(0, 50).boxed().collect(Collectors.toList()), unordered);
+    }
+
+    @Test
+    void testFailure() {
+        CompletionException failure = assertThrows(CompletionException.class, () -> mapConcurrent(IntStream.range(0, 10).boxed(), i -> {
+            if (i == 5) {
+                throw new IllegalStateException("lookup failed");
+            }
+            return i;
+        }, 2).collect(Collectors.toList()));
+        assertEquals("lookup failed", failure.getCause().getMessage());
+    }
+
+    /**
+     * Closing an abandoned stream interrupts the calls still running
+     */
+    @Test
+    void testCloseCancelsInFlightCalls() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(3);
+        CountDownLatch interrupted = new CountDownLatch(3);
+        CountDownLatch never = new CountDownLatch(1);
+
+        try (Stream<Integer> mapped = mapConcurrent(IntStream.range(0, 10).boxed(), i -> {
+            if (i == 0) {
+                return i;
+            }
+            started.countDown();
+            try {
+                never.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return i;
+        }, 4)) {
+            assertEquals(Integer.valueOf(0), mapped.findFirst().orElse(null));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+        }
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "in-flight calls were not cancelled");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+
+import static com.justalex.streams.collectors.EnumCollectors.*;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EnumCollectorsExamples {
+
+    private final List<User> users = asList(
+        new User("John", 9, MALE),
+        new User("John", 21, MALE),
+        new User("Bob", 19, FEMALE)
+    );
+
+    /**
+     * Same result as groupingBy(User::getGender, () -> new EnumMap<>(Gender.class), counting())
+     */
+    @Test
+    void testCountingByEnum() {
+        EnumMap<Gender, Long> countByGender = users.stream().collect(countingByEnum(Gender.class, User::getGender));
+
+        assertEquals(users.stream().collect(groupingBy(User::getGender, () -> new EnumMap<>(Gender.class), counting())), countByGender);
+        assertEquals(2, countByGender.get(MALE).longValue());
+    }
+
+    /**
+     * Keys without elements are left out of the map just like in groupingBy
+     */
+    @Test
+    void testSummingIntByEnum() {
+        EnumMap<Gender, Integer> totalAgePerGender = users.stream()
+            .filter(user -> user.getGender() == MALE)
+            .collect(summingIntByEnum(Gender.class, User::getGender, User::getAge));
+
+        assertEquals(21 + 9, totalAgePerGender.get(MALE).intValue());
+        assertFalse(totalAgePerGender.containsKey(FEMALE));
+    }
+
+    @Test
+    void testSummarizingIntByEnumParallel() {
+        EnumMap<Gender, IntSummaryStatistics> byGenderIntSummary = users.parallelStream()
+            .collect(summarizingIntByEnum(Gender.class, User::getGender, User::getAge));
+
+        assertEquals(2, byGenderIntSummary.get(MALE).getCount());
+        assertEquals(21, byGenderIntSummary.get(MALE).getMax());
+        assertEquals(9, byGenderIntSummary.get(MALE).getMin());
+        assertEquals(19, byGenderIntSummary.get(FEMALE).getSum());
+    }
+
+    @Test
+    void testNullKey() {
+        List<User> withNullGender = asList(new User("John", 9, null));
+        assertThrows(NullPointerException.class, () -> withNullGender.stream().collect(countingByEnum(Gender.class, User::getGender)));
+    }
+}
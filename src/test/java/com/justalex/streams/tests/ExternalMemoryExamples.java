@@ -0,0 +1,169 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.external.Codecs;
+import com.justalex.streams.external.ExternalGroupingCollector;
+import com.justalex.streams.external.ExternalSort;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.groupingBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExternalMemoryExamples {
+
+    private Path spillDirectory;
+
+    @BeforeEach
+    void createSpillDirectory() throws IOException {
+        spillDirectory = Files.createTempDirectory("spill");
+    }
+
+    @AfterEach
+    void deleteSpillDirectory() throws IOException {
+        try (Stream<Path> leftovers = Files.list(spillDirectory)) {
+            assertEquals(0, leftovers.count(), "spill files must be deleted");
+        }
+        Files.delete(spillDirectory);
+    }
+
+    /**
+     * testGroupBy4 with a memory budget far below the input size
+     */
+    @Test
+    void testExternalGroupingBy() {
+        List<User> users = UserGenerator.builder().distinctNames(300).build().users(20_000).collect(Collectors.toList());
+        Map<String, Map<Gender, List<User>>> expected = users.stream().collect(groupingBy(User::getName, groupingBy(User::getGender)));
+
+        for (Stream<User> source : Arrays.asList(users.stream(), users.parallelStream())) {
+            Map<String, Map<Gender, List<User>>> actual = new HashMap<>();
+            try (Stream<Map.Entry<String, Map<Gender, List<User>>>> groups = source.collect(ExternalGroupingCollector.groupingBy(
+                User::getName, groupingBy(User::getGender), Codecs.STRING, Codecs.USER, 1_000, spillDirectory))) {
+                groups.forEach(group -> actual.put(group.getKey(), group.getValue()));
+            }
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    void testNoSpillWithinBudget() {
+        List<User> users = UserGenerator.builder().build().users(100).collect(Collectors.toList());
+        try (Stream<Map.Entry<Gender, List<User>>> groups = users.stream().collect(ExternalGroupingCollector.groupingBy(
+            User::getGender, Codecs.GENDER, Codecs.USER, 1_000, spillDirectory))) {
+            assertEquals(2, groups.count());
+        }
+    }
+
+    /**
+     * testSortMap idiom over sorted runs on disk
+     */
+    @Test
+    void testExternalSortEntriesByValue() {
+        Map<String, Integer> map = new HashMap<>();
+        UserGenerator.builder().distinctNames(5_000).build().users(5_000).forEach(user -> map.put(user.getName(), user.getAge()));
+
+        List<Integer> expected = map.values().stream().sorted().collect(Collectors.toList());
+        try (Stream<Map.Entry<String, Integer>> sorted = ExternalSort.sorted(map.entrySet().stream(), Map.Entry.comparingByValue(),
+            Codecs.entry(Codecs.STRING, Codecs.INTEGER), 500, spillDirectory)) {
+            LinkedHashMap<String, Integer> result = sorted.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (oldValue, newValue) -> oldValue, LinkedHashMap::new));
+            assertEquals(expected, new ArrayList<>(result.values()));
+            assertEquals(map, result);
+        }
+
+        // abandoned half way, closing still deletes the runs
+        try (Stream<Map.Entry<String, Integer>> sorted = ExternalSort.sorted(map.entrySet().stream(), Map.Entry.comparingByValue(),
+            Codecs.entry(Codecs.STRING, Codecs.INTEGER), 500, spillDirectory)) {
+            assertEquals(expected.get(0), sorted.findFirst().map(Map.Entry::getValue).orElse(null));
+        }
+    }
+
+    /**
+     * More runs than the fan-in are merged in several passes, the final merge keeps at most MAX_FAN_IN files open
+     */
+    @Test
+    void testManyRuns() throws IOException {
+        List<Integer> values = new SplittableRandom(7).ints(5_000, 0, 1_000).boxed().collect(Collectors.toList());
+        List<Integer> expected = values.stream().sorted().collect(Collectors.toList());
+
+        try (Stream<Integer> sorted = ExternalSort.sorted(values.stream(), Comparator.naturalOrder(), Codecs.INTEGER, 10, spillDirectory)) {
+            assertTrue(spillFiles() <= ExternalSort.MAX_FAN_IN);
+            Iterator<Integer> iterator = sorted.iterator();
+            List<Integer> result = new ArrayList<>();
+            while (iterator.hasNext()) {
+                result.add(iterator.next());
+            }
+            assertEquals(expected, result);
+            // consumed runs are deleted before the stream is closed
+            assertEquals(0, spillFiles());
+        }
+    }
+
+    private long spillFiles() throws IOException {
+        try (Stream<Path> files = Files.list(spillDirectory)) {
+            return files.count();
+        }
+    }
+
+    /**
+     * Runs sorted by another comparator don't let a following natural order sorted() be skipped
+     */
+    @Test
+    void testSortedAfterExternalSort() {
+        try (Stream<String> sorted = ExternalSort.sorted(Stream.of("a", "d", "c", "b", "e"), Comparator.reverseOrder(),
+            Codecs.STRING, 2, spillDirectory)) {
+            assertEquals(asList("a", "b", "c", "d", "e"), sorted.sorted().collect(Collectors.toList()));
+        }
+    }
+
+    /**
+     * Runs and partitions already written are deleted when the input or the classifier fails half way
+     */
+    @Test
+    void testFailingInputDeletesRuns() {
+        Stream<Integer> failing = Stream.iterate(0, i -> i + 1).peek(i -> {
+            if (i == 25) {
+                throw new IllegalStateException("input failed");
+            }
+        });
+        assertThrows(IllegalStateException.class,
+            () -> ExternalSort.sorted(failing, Comparator.naturalOrder(), Codecs.INTEGER, 10, spillDirectory));
+
+        assertThrows(IllegalStateException.class, () -> Stream.iterate(0, i -> i + 1).limit(100)
+            .collect(ExternalGroupingCollector.groupingBy(i -> {
+                if (i == 50) {
+                    throw new IllegalStateException("classifier failed");
+                }
+                return i % 7;
+            }, Codecs.INTEGER, Codecs.INTEGER, 10, spillDirectory)));
+    }
+
+    /**
+     * Strings are written as length prefixed UTF-8, nulls and strings past the 64KB limit of writeUTF included
+     */
+    @Test
+    void testStringCodec() {
+        char[] chars = new char[70_000];
+        Arrays.fill(chars, '\u00e9');
+        String longString = new String(chars);
+        List<User> users = asList(new User(null, 9, Gender.MALE), new User(longString, 21, Gender.FEMALE));
+
+        try (Stream<User> sorted = ExternalSort.sorted(users.stream(), Comparator.comparingInt(User::getAge), Codecs.USER, 1, spillDirectory)) {
+            assertEquals(users, sorted.collect(Collectors.toList()));
+        }
+        try (Stream<String> sorted = ExternalSort.sorted(Stream.of(longString, "b", "a"), Comparator.nullsFirst(Comparator.<String>naturalOrder()),
+            Codecs.STRING, 1, spillDirectory)) {
+            assertEquals(asList("a", "b", longString), sorted.collect(Collectors.toList()));
+        }
+    }
+}
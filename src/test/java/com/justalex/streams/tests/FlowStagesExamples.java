@@ -0,0 +1,174 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.joins.Pair;
+import com.justalex.streams.reactive.Window;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.justalex.streams.reactive.FlowStages.*;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FlowStagesExamples {
+
+    /**
+     * Timestamped users from a change feed, in millis
+     */
+    private final List<Pair<Long, User>> feed = asList(
+        new Pair<>(1_000L, new User("John", 9, MALE)),
+        new Pair<>(4_000L, new User("Bob", 19, FEMALE)),
+        new Pair<>(9_999L, new User("John", 21, MALE)),
+        new Pair<>(12_000L, new User("Alice", 31, FEMALE)),
+        new Pair<>(35_000L, new User("Alex", 42, MALE))
+    );
+
+    @Test
+    void testFilterMapFlatMap() throws Exception {
+        Flow.Publisher<String> names = flatMap(
+            map(filter(fromIterable(feed), event -> event.getRight().getAge() > 10), Pair::getRight),
+            user -> Stream.of(user.getName(), user.getName().toUpperCase()));
+
+        List<String> result = new ArrayList<>();
+        consume(names, result::add, 1).get(1, TimeUnit.SECONDS);
+
+        assertEquals(asList("Bob", "BOB", "John", "JOHN", "Alice", "ALICE", "Alex", "ALEX"), result);
+    }
+
+    /**
+     * Count by gender per 10 s, empty windows between 20 and 30 s are skipped
+     */
+    @Test
+    void testTumblingWindows() throws Exception {
+        List<Window<Map<Gender, Long>>> windows = new ArrayList<>();
+        consume(tumblingWindows(fromIterable(feed), Pair::getLeft, Duration.ofSeconds(10),
+            groupingBy(event -> event.getRight().getGender(), counting())), windows::add, 1).get(1, TimeUnit.SECONDS);
+
+        assertEquals(3, windows.size());
+        assertEquals(0, windows.get(0).getStart());
+        assertEquals(2L, windows.get(0).getResult().get(MALE).longValue());
+        assertEquals(1L, windows.get(0).getResult().get(FEMALE).longValue());
+        assertEquals(Collections.singletonMap(FEMALE, 1L), windows.get(1).getResult());
+        assertEquals(30_000, windows.get(2).getStart());
+    }
+
+    @Test
+    void testSlidingWindows() throws Exception {
+        List<Window<Long>> windows = new ArrayList<>();
+        consume(slidingWindows(fromIterable(feed), Pair::getLeft, 10_000, 5_000, counting()), windows::add, 16)
+            .get(1, TimeUnit.SECONDS);
+
+        assertEquals(asList(-5_000L, 0L, 5_000L, 10_000L, 30_000L, 35_000L),
+            windows.stream().map(Window::getStart).collect(Collectors.toList()));
+        assertEquals(asList(2L, 3L, 2L, 1L, 1L, 1L),
+            windows.stream().map(Window::getResult).collect(Collectors.toList()));
+    }
+
+    /**
+     * An endless feed behind a small SubmissionPublisher buffer: the producer is held back
+     * by the slow subscriber instead of queueing everything in memory
+     */
+    @Test
+    void testBackpressure() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        SubmissionPublisher<Pair<Long, User>> publisher = new SubmissionPublisher<>(executor, 4);
+        try {
+            List<Window<Long>> windows = Collections.synchronizedList(new ArrayList<>());
+            CompletableFuture<Void> done = consume(tumblingWindows(publisher, Pair::getLeft, 100, counting()), window -> {
+                windows.add(window);
+                sleep(1);
+            }, 1);
+
+            int maxLag = 0;
+            for (long time = 0; time < 1_000; time++) {
+                publisher.submit(new Pair<>(time, new User("User" + time, (int) (time % 100), time % 2 == 0 ? MALE : FEMALE)));
+                maxLag = Math.max(maxLag, publisher.estimateMaximumLag());
+            }
+            // completing the feed flushes the last window
+            publisher.close();
+            done.get(5, TimeUnit.SECONDS);
+
+            // the 4 buffered events plus the one being aggregated
+            assertTrue(maxLag <= 5);
+
+            assertEquals(10, windows.size());
+            assertTrue(windows.stream().allMatch(window -> window.getResult() == 100L));
+        } finally {
+            publisher.close();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailure() {
+        CompletableFuture<Void> done = consume(map(fromIterable(feed), event -> {
+            if (event.getLeft() > 10_000) {
+                throw new IllegalStateException("bad event");
+            }
+            return event;
+        }), event -> {
+        }, 1);
+
+        assertTrue(done.isCompletedExceptionally());
+    }
+
+    /**
+     * A non-positive request is answered with onError, as rule 3.9 of Reactive Streams requires
+     */
+    @Test
+    void testNonPositiveRequest() throws Exception {
+        CompletableFuture<Throwable> error = new CompletableFuture<>();
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        map(fromIterable(feed), event -> event.getRight().getName()).subscribe(new Flow.Subscriber<String>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(0);
+            }
+
+            @Override
+            public void onNext(String item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error.complete(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                error.completeExceptionally(new AssertionError("completed instead of failing"));
+            }
+        });
+
+        assertTrue(error.get(5, TimeUnit.SECONDS) instanceof IllegalArgumentException);
+        assertEquals(Collections.emptyList(), received);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
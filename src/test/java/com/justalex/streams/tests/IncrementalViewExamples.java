@@ -0,0 +1,103 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.incremental.AgeSummaryView;
+import com.justalex.streams.incremental.UserChange;
+import com.justalex.streams.incremental.UserRepository;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IncrementalViewExamples {
+
+    /**
+     * Incremental version of testGroupBy8
+     */
+    @Test
+    void testAgeSummaryByGender() {
+        UserRepository repository = new UserRepository();
+        long john = repository.insert(new User("John", 9, MALE));
+        repository.insert(new User("John", 21, MALE));
+        long bob = repository.insert(new User("Bob", 19, FEMALE));
+
+        AgeSummaryView<Gender> byGender = repository.ageSummaryBy(User::getGender);
+        AgeSummaryView.AgeSummary male = byGender.get(MALE).orElseThrow(IllegalStateException::new);
+        assertEquals(2, male.getCount());
+        assertEquals(21, male.getMax());
+        assertEquals(9, male.getMin());
+        assertEquals(15, male.getAverage());
+
+        // the youngest male becomes the oldest one
+        repository.update(john, user -> user.setAge(40));
+        male = byGender.get(MALE).orElseThrow(IllegalStateException::new);
+        assertEquals(21, male.getMin());
+        assertEquals(40, male.getMax());
+        assertEquals(61, male.getSum());
+
+        // moving a user to another group
+        repository.update(bob, user -> user.setGender(MALE));
+        assertFalse(byGender.get(FEMALE).isPresent());
+        assertEquals(3, byGender.get(MALE).orElseThrow(IllegalStateException::new).getCount());
+
+        repository.delete(john);
+        assertEquals(21, byGender.get(MALE).orElseThrow(IllegalStateException::new).getMax());
+    }
+
+    @Test
+    void testDeltas() {
+        UserRepository repository = new UserRepository();
+        List<UserChange> changes = new ArrayList<>();
+        repository.subscribe(changes::add);
+
+        User user = new User("John", 9, MALE);
+        long id = repository.insert(user);
+        user.setAge(10); // not seen by the repository, it keeps its own copy
+        repository.update(id, user);
+        repository.delete(id);
+
+        assertEquals(3, changes.size());
+        assertEquals(UserChange.Type.INSERT, changes.get(0).getType());
+        assertEquals(9, changes.get(1).getBefore().getAge());
+        assertEquals(10, changes.get(1).getAfter().getAge());
+        assertNull(changes.get(2).getAfter());
+        assertEquals(0, repository.size());
+    }
+
+    /**
+     * Users carried by changes are the stored snapshots, a listener can't change the repository behind its back
+     */
+    @Test
+    void testSnapshotsAreReadOnly() {
+        UserRepository repository = new UserRepository();
+        long id = repository.insert(new User("John", 9, MALE));
+        List<UserChange> changes = new ArrayList<>();
+        repository.subscribe(changes::add);
+
+        assertThrows(UnsupportedOperationException.class, () -> changes.get(0).getAfter().setAge(99));
+        repository.get(id).orElseThrow(IllegalStateException::new).setAge(99);
+        assertEquals(9, repository.get(id).orElseThrow(IllegalStateException::new).getAge());
+    }
+
+    /**
+     * The change is applied and seen by every listener even if one of them fails
+     */
+    @Test
+    void testFailingListener() {
+        UserRepository repository = new UserRepository();
+        List<UserChange> changes = new ArrayList<>();
+        repository.subscribe(change -> {
+            throw new IllegalStateException("listener failed");
+        });
+        repository.subscribe(changes::add);
+
+        assertThrows(IllegalStateException.class, () -> repository.insert(new User("John", 9, MALE)));
+        assertEquals(1, repository.size());
+        assertEquals(1, changes.size());
+    }
+}
@@ -0,0 +1,94 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.index.IndexedUserCollection;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IndexedUserCollectionExamples {
+
+    /**
+     * "males aged 18-25 named John" answered by bitmap intersection
+     */
+    @Test
+    void testQuery() {
+        List<User> users = UserGenerator.builder().distinctNames(50).build().users(10_000).collect(Collectors.toList());
+        IndexedUserCollection collection = new IndexedUserCollection(users);
+
+        List<User> expected = users.stream()
+            .filter(user -> "User7".equals(user.getName()))
+            .filter(user -> user.getGender() == MALE)
+            .filter(user -> user.getAge() >= 18 && user.getAge() <= 25)
+            .collect(Collectors.toList());
+
+        List<User> found = collection.query().nameIs("User7").genderIs(MALE).ageBetween(18, 25).list();
+        assertEquals(expected, found);
+        assertEquals(0, collection.query().nameIs("nobody").count());
+        assertEquals(users.size(), collection.query().count());
+    }
+
+    /**
+     * Users created by the collection reindex themselves through their setters
+     */
+    @Test
+    void testSettersKeepIndexesInSync() {
+        IndexedUserCollection collection = new IndexedUserCollection();
+        User john = collection.add("John", 15, MALE);
+        collection.add("Rob", 11, FEMALE);
+
+        john.setAge(20);
+        john.setGender(FEMALE);
+
+        assertEquals(asList(john), collection.query().ageBetween(18, 25).list());
+        assertEquals(2, collection.query().genderIs(FEMALE).count());
+        assertEquals(0, collection.query().ageIs(15).count());
+    }
+
+    @Test
+    void testExplicitReindex() {
+        User carl = new User("Carl", 11, MALE);
+        IndexedUserCollection collection = new IndexedUserCollection(asList(carl, new User("John", 15, MALE)));
+
+        carl.setName("Karl");
+        assertEquals(1, collection.query().nameIs("Carl").count());
+        collection.reindex(carl);
+        assertEquals(0, collection.query().nameIs("Carl").count());
+        assertEquals(asList(carl), collection.query().nameIs("Karl").list());
+
+        assertTrue(collection.remove(carl));
+        assertEquals(1, collection.size());
+        assertEquals(0, collection.query().nameIs("Karl").count());
+    }
+
+    /**
+     * Adds after removes reuse the freed rows, churn doesn't grow the row storage
+     */
+    @Test
+    void testRowsReused() {
+        IndexedUserCollection collection = new IndexedUserCollection();
+        List<User> users = UserGenerator.builder().distinctNames(50).build().users(100).collect(Collectors.toList());
+        users.forEach(collection::add);
+
+        for (int round = 0; round < 1000; round++) {
+            User removed = users.get(round % users.size());
+            assertTrue(collection.remove(removed));
+            User added = collection.add("User" + round, round % 90, round % 2 == 0 ? MALE : FEMALE);
+            users.set(round % users.size(), added);
+        }
+
+        assertEquals(100, collection.size());
+        assertEquals(100, collection.rowCapacity());
+        assertEquals(new HashSet<>(users), collection.stream().collect(Collectors.toSet()));
+        assertEquals(asList(users.get(99)), collection.query().nameIs("User999").list());
+        assertEquals(users.stream().filter(user -> user.getGender() == MALE).count(), collection.query().genderIs(MALE).count());
+    }
+}
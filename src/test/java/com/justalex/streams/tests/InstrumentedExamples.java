@@ -0,0 +1,163 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.metrics.StageMetrics;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import javax.management.ObjectName;
+
+import static com.justalex.streams.metrics.Instrumented.*;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InstrumentedExamples {
+
+    private final List<User> users = asList(
+        new User("John", 9, MALE),
+        new User("John", 21, MALE),
+        new User("Bob", 19, FEMALE)
+    );
+
+    @AfterEach
+    void disable() {
+        setEnabled(false);
+    }
+
+    /**
+     * Same pipeline as testGroupBy9, with both collector levels instrumented
+     */
+    @Test
+    void testNestedCollectors() throws Exception {
+        setEnabled(true);
+        metrics("byGender").reset();
+        metrics("names").reset();
+
+        Map<Gender, String> namesByGender = users.stream()
+            .collect(collector("byGender", groupingBy(User::getGender, collector("names", mapping(User::getName, joining(", "))))));
+
+        assertEquals("John, John", namesByGender.get(MALE));
+        StageMetrics byGender = metrics("byGender");
+        StageMetrics names = metrics("names");
+        assertEquals(3, byGender.getElementsIn());
+        assertEquals(1, byGender.getSupplierCalls());
+        assertEquals(3, names.getAccumulatorCalls());
+        assertEquals(2, names.getSupplierCalls());
+        assertEquals(2, names.getFinisherCalls());
+        assertEquals(0, byGender.getCombinerCalls());
+        assertTrue(byGender.getAccumulatorNanos() >= names.getAccumulatorNanos());
+
+        ObjectName objectName = new ObjectName("com.justalex.streams:type=Stage,name=\"names\"");
+        assertEquals(3L, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "AccumulatorCalls"));
+    }
+
+    /**
+     * Combiner calls show how often a parallel stream was really split
+     */
+    @Test
+    void testParallelSplits() {
+        setEnabled(true);
+        metrics("parallelCount").reset();
+
+        long count = UserGenerator.builder().build().users(100_000).parallel()
+            .collect(collector("parallelCount", counting()));
+
+        StageMetrics metrics = metrics("parallelCount");
+        assertEquals(100_000, count);
+        assertEquals(100_000, metrics.getAccumulatorCalls());
+        assertEquals(metrics.getSupplierCalls() - 1, metrics.getCombinerCalls());
+        assertTrue(metrics.getCombinerCalls() > 0);
+    }
+
+    @Test
+    void testStages() {
+        setEnabled(true);
+        metrics("adults").reset();
+        metrics("names").reset();
+        metrics("distinctNames").reset();
+
+        Function<Stream<String>, Stream<String>> distinct = stage("distinctNames", Stream::distinct);
+        List<String> names = distinct.apply(users.stream()
+            .filter(predicate("adults", user -> user.getAge() > 18))
+            .map(function("names", User::getName)))
+            .collect(toList());
+
+        assertEquals(asList("John", "Bob"), names);
+        assertEquals(3, metrics("adults").getElementsIn());
+        assertEquals(2, metrics("adults").getElementsOut());
+        assertEquals(2, metrics("names").getStageCalls());
+        assertEquals(metrics("names").getNanos(StageMetrics.Phase.STAGE), metrics("names").getStageNanos());
+        assertEquals(3, metrics("adults").getStageCalls());
+        assertEquals(2, metrics("distinctNames").getElementsIn());
+    }
+
+    @Test
+    void testStageAttributes() throws Exception {
+        setEnabled(true);
+        metrics("upperNames").reset();
+
+        users.stream().map(function("upperNames", (User user) -> user.getName().toUpperCase())).collect(toList());
+
+        ObjectName objectName = new ObjectName("com.justalex.streams:type=Stage,name=\"upperNames\"");
+        assertEquals(3L, ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "StageCalls"));
+        assertTrue((Long) ManagementFactory.getPlatformMBeanServer().getAttribute(objectName, "StageNanos") > 0);
+    }
+
+    /**
+     * count() of a sized stream skips peek, the stage still sees every element
+     */
+    @Test
+    void testStageCount() {
+        setEnabled(true);
+        metrics("sizedNames").reset();
+
+        long count = stage("sizedNames", (Stream<User> s) -> s.map(User::getName)).apply(users.stream()).count();
+
+        assertEquals(3, count);
+        assertEquals(3, metrics("sizedNames").getElementsIn());
+        assertEquals(3, metrics("sizedNames").getElementsOut());
+    }
+
+    @Test
+    void testAllocatedBytes() {
+        setEnabled(true);
+        metrics("lists").reset();
+
+        users.stream().collect(collector("lists", toList()));
+
+        assertTrue(metrics("lists").getAllocatedBytes() > 0);
+    }
+
+    /**
+     * toList() has an identity finisher, the instrumented one is still called
+     */
+    @Test
+    void testIdentityFinisher() {
+        setEnabled(true);
+        metrics("toList").reset();
+
+        List<User> collected = users.stream().collect(collector("toList", toList()));
+
+        assertEquals(users, collected);
+        assertEquals(1, metrics("toList").getFinisherCalls());
+        assertEquals(1, metrics("toList").getElementsOut());
+        assertFalse(collector("toList", toList()).characteristics().contains(Collector.Characteristics.IDENTITY_FINISH));
+    }
+
+    @Test
+    void testDisabled() {
+        Collector<User, ?, Long> counting = counting();
+        assertSame(counting, collector("disabled", counting));
+    }
+}
@@ -0,0 +1,61 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.users.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.justalex.streams.collectors.IntKeyGroupingCollector.*;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.mapping;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class IntKeyGroupingExamples {
+
+    private final List<User> users = asList(
+        new User("John", 15, MALE),
+        new User("Rob", 11, FEMALE),
+        new User("Carl", 11, MALE),
+        new User("John", 15, FEMALE)
+    );
+
+    @Test
+    void testToList() {
+        Map<Integer, List<User>> usersByAge = users.stream().collect(toList(User::getAge));
+
+        assertEquals(users.stream().collect(Collectors.groupingBy(User::getAge)), usersByAge);
+        assertEquals(asList(new User("Rob", 11, FEMALE), new User("Carl", 11, MALE)), usersByAge.get(11));
+    }
+
+    @Test
+    void testCountingAndSumming() {
+        Map<Integer, Long> countByAge = users.stream().collect(counting(User::getAge));
+        assertEquals(2, countByAge.get(15).longValue());
+        assertEquals(2, countByAge.get(11).longValue());
+
+        Map<Integer, Integer> nameLengthByAge = users.stream().collect(summingInt(User::getAge, user -> user.getName().length()));
+        assertEquals(4 + 4, nameLengthByAge.get(15).intValue());
+        assertEquals(3 + 4, nameLengthByAge.get(11).intValue());
+    }
+
+    /**
+     * Parallel streams merge the per thread tables, enough keys to force several rehashes
+     */
+    @Test
+    void testManyKeysParallel() {
+        Map<Integer, Long> countByRemainder = IntStream.range(0, 100_000).boxed().parallel()
+            .collect(counting(i -> i % 1000 - 500));
+
+        assertEquals(1000, countByRemainder.size());
+        countByRemainder.values().forEach(count -> assertEquals(100, count.longValue()));
+
+        Map<Integer, String> namesByAge = users.parallelStream().collect(groupingBy(User::getAge, mapping(User::getName, joining(", "))));
+        assertEquals("Rob, Carl", namesByAge.get(11));
+    }
+}
@@ -0,0 +1,134 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.collectors.JoinedText;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.justalex.streams.collectors.JoiningCollectors.*;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JoiningCollectorsExamples {
+
+    private final List<User> users = asList(
+        new User("John", 9, MALE),
+        new User("John", 21, MALE),
+        new User("Bob", 19, FEMALE)
+    );
+
+    /**
+     * Same as testJoinStrings2 and testGroupBy9
+     */
+    @Test
+    void testJoining() {
+        assertEquals("a, b, c", Stream.of("a", "b", "c").collect(joining(", ", 3)));
+        assertEquals("", Stream.<String>empty().collect(joining(", ", 0)));
+
+        Map<Gender, String> namesByGender = users.stream().collect(groupingBy(User::getGender, mapping(User::getName, joining(", ", 16))));
+        assertEquals("John, John", namesByGender.get(MALE));
+        assertEquals("Bob", namesByGender.get(FEMALE));
+    }
+
+    /**
+     * Partial results are chained, not copied, and keep the encounter order
+     */
+    @Test
+    void testParallelRope() {
+        List<String> names = UserGenerator.builder().build().users(100_000).map(User::getName).collect(Collectors.toList());
+
+        JoinedText joined = names.parallelStream().collect(joiningRope(", ", 1024));
+
+        String expected = String.join(", ", names);
+        assertEquals(100_000, joined.elementCount());
+        assertEquals(expected.length(), joined.length());
+        assertEquals(expected, joined.toString());
+        assertEquals(expected, joined.writeTo(new StringBuilder()).toString());
+    }
+
+    @Test
+    void testJoiningToWriter() {
+        StringWriter writer = users.stream().map(User::getName).collect(joiningTo(new StringWriter(), "; "));
+        assertEquals("John; John; Bob", writer.toString());
+    }
+
+    /**
+     * A second container fails right away and the first one stops writing, the sink is never written out of order
+     */
+    @Test
+    void testJoiningToSingleContainer() {
+        List<String> names = UserGenerator.builder().build().users(10_000).map(User::getName).collect(Collectors.toList());
+        StringBuilder sink = new StringBuilder();
+        // elements only flow once a second container was asked for
+        CountDownLatch containers = new CountDownLatch(2);
+        assertThrows(UnsupportedOperationException.class, () -> names.parallelStream()
+            .peek(name -> await(containers))
+            .collect(countingContainers(joiningTo(sink, ", "), containers)));
+        assertEquals("", sink.toString());
+
+        StringBuilder groups = new StringBuilder();
+        assertThrows(UnsupportedOperationException.class, () -> Stream.of("a", "b", "c", "d")
+            .collect(groupingBy(s -> s.compareTo("b") > 0, joiningTo(groups, ","))));
+        assertEquals("a,b", groups.toString());
+    }
+
+    /**
+     * UTF-8 encoded on the fly through a fixed buffer, larger than the buffer and with multi byte names
+     */
+    @Test
+    void testJoiningToChannel() {
+        List<String> names = Stream.concat(Stream.of("Jürgen", "Zoë", "😀"),
+            UserGenerator.builder().build().users(20_000).map(User::getName)).collect(Collectors.toList());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long bytes = names.stream().collect(joiningTo(Channels.newChannel(out), ", "));
+
+        byte[] expected = String.join(", ", names).getBytes(StandardCharsets.UTF_8);
+        assertEquals(expected.length, bytes);
+        assertArrayEquals(expected, out.toByteArray());
+
+        ByteArrayOutputStream perGender = new ByteArrayOutputStream();
+        long written = users.stream().collect(groupingBy(User::getGender, mapping(User::getName, joiningRope(", ", 16))))
+            .get(MALE).writeTo(Channels.newChannel(perGender));
+        assertEquals("John, John", perGender.toString(StandardCharsets.UTF_8));
+        assertEquals(10, written);
+    }
+
+    private static <T, A, R> Collector<T, A, R> countingContainers(Collector<T, A, R> collector, CountDownLatch containers) {
+        Supplier<A> supplier = collector.supplier();
+        return Collector.of(() -> {
+            try {
+                return supplier.get();
+            } finally {
+                containers.countDown();
+            }
+        }, collector.accumulator(), collector.combiner(), collector.finisher());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.joins.Joins;
+import com.justalex.streams.joins.Pair;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JoinsExamples {
+
+    /**
+     * Hash join version of testFindElementsInListByProperty
+     */
+    @Test
+    void testSemiJoin() {
+        List<User> users = asList(
+            new User("John", 15, MALE),
+            new User("Rob", 11, FEMALE),
+            new User("Carl", 11, MALE)
+        );
+
+        List<String> usersWithNames = asList("John", "Rob");
+
+        List<User> result = Joins.semiJoin(users, User::getName, usersWithNames);
+
+        assertEquals(2, result.size());
+        assertTrue(result.contains(new User("John", 15, MALE)));
+        assertTrue(result.contains(new User("Rob", 11, FEMALE)));
+        assertFalse(result.contains(new User("Carl", 11, MALE)));
+    }
+
+    /**
+     * Same result as the nested loop, from either side and in parallel
+     */
+    @Test
+    void testSemiJoinMatchesNestedLoop() {
+        List<User> users = UserGenerator.builder().distinctNames(500).build().users(5_000).collect(Collectors.toList());
+        List<String> fewNames = asList("User7", "User3", "missing", "User7");
+        List<String> manyNames = IntStream.range(0, 10_000).mapToObj(i -> "User" + (i % 700)).collect(Collectors.toList());
+
+        for (List<String> names : asList(fewNames, manyNames)) {
+            List<User> expected = new ArrayList<>();
+            names.forEach(userName -> users.stream().filter(user -> userName.equals(user.getName())).findFirst().ifPresent(expected::add));
+
+            assertEquals(expected, Joins.semiJoin(users, User::getName, names));
+            assertEquals(expected, Joins.semiJoin(users, User::getName, names, true));
+        }
+    }
+
+    @Test
+    void testInnerAndLeftJoin() {
+        List<User> users = asList(
+            new User("John", 15, MALE),
+            new User("Rob", 11, FEMALE),
+            new User("John", 21, MALE)
+        );
+        List<String> names = asList("John", "Bob");
+
+        List<Pair<String, User>> inner = Joins.innerJoin(names, name -> name, users, User::getName).collect(Collectors.toList());
+        assertEquals(2, inner.size());
+        assertTrue(inner.contains(new Pair<>("John", new User("John", 21, MALE))));
+
+        List<Pair<String, User>> left = Joins.leftJoin(names, name -> name, users, User::getName).parallel().collect(Collectors.toList());
+        assertEquals(asList(
+            new Pair<>("John", new User("John", 15, MALE)),
+            new Pair<>("John", new User("John", 21, MALE)),
+            new Pair<>("Bob", null)
+        ), left);
+    }
+}
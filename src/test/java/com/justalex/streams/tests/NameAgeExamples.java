@@ -0,0 +1,75 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.users.NameAge;
+import com.justalex.streams.users.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.justalex.streams.collectors.NameAgeGroupingCollector.groupingByNameAge;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class NameAgeExamples {
+
+    private final List<User> users = asList(
+        new User("John", 15, MALE),
+        new User("Rob", 11, FEMALE),
+        new User("Carl", 11, MALE),
+        new User("John", 15, FEMALE)
+    );
+
+    @Test
+    void testInterning() {
+        NameAge.Interner interner = new NameAge.Interner();
+        NameAge first = interner.intern("John", 15);
+        assertSame(first, interner.intern("John", 15));
+        assertNotSame(first, interner.intern("John", 16));
+        assertEquals(new NameAge("John", 15), first);
+        assertEquals(2, interner.size());
+        assertNotSame(first, new NameAge.Interner().intern("John", 15));
+    }
+
+    /**
+     * Probe finds the bucket of an equal key without creating a NameAge
+     */
+    @Test
+    void testProbeLookup() {
+        Map<NameAge, String> map = new HashMap<>();
+        map.put(new NameAge("John", 15), "found");
+        NameAge.Probe probe = new NameAge.Probe();
+
+        assertEquals("found", map.get(probe.set("John", 15)));
+        assertNull(map.get(probe.set("John", 16)));
+        assertEquals(new NameAge(null, 1), new NameAge.Probe().set(null, 1).toKey());
+    }
+
+    /**
+     * Same result as testGroupBy2 but without a key per element
+     */
+    @Test
+    void testGroupingByNameAge() {
+        Map<NameAge, List<User>> mapNameAge = users.stream().collect(groupingByNameAge(User::getName, User::getAge));
+
+        assertEquals(users.stream().collect(groupingBy(user -> new NameAge(user.getName(), user.getAge()))), mapNameAge);
+        assertEquals(asList(new User("John", 15, MALE), new User("John", 15, FEMALE)), mapNameAge.get(new NameAge("John", 15)));
+
+        Map<NameAge, Long> countByNameAge = users.parallelStream().collect(groupingByNameAge(User::getName, User::getAge, counting()));
+        assertEquals(2, countByNameAge.get(new NameAge("John", 15)).longValue());
+        assertEquals(3, countByNameAge.size());
+
+        NameAge.Interner interner = new NameAge.Interner();
+        Map<NameAge, Long> first = users.stream().collect(groupingByNameAge(User::getName, User::getAge, interner, counting()));
+        Map<NameAge, Long> second = users.stream().collect(groupingByNameAge(User::getName, User::getAge, interner, counting()));
+        NameAge john = interner.intern("John", 15);
+        assertTrue(first.keySet().stream().anyMatch(key -> key == john));
+        assertTrue(second.keySet().stream().anyMatch(key -> key == john));
+        assertEquals(3, interner.size());
+    }
+}
@@ -0,0 +1,185 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.cache.UserQueryCache;
+import com.justalex.streams.cache.VersionedResultCache;
+import com.justalex.streams.incremental.UserRepository;
+import com.justalex.streams.query.UserQuery;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.justalex.streams.query.Aggregate.AVERAGE_AGE;
+import static com.justalex.streams.query.Aggregate.COUNT;
+import static com.justalex.streams.query.GroupKey.GENDER;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.mapping;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultCacheExamples {
+
+    private UserRepository repository() {
+        UserRepository repository = new UserRepository();
+        repository.insert(new User("John", 9, MALE));
+        repository.insert(new User("John", 21, MALE));
+        repository.insert(new User("Bob", 19, FEMALE));
+        return repository;
+    }
+
+    /**
+     * Equal queries share one result until the repository changes
+     */
+    @Test
+    void testHitsAndInvalidation() {
+        UserRepository repository = repository();
+        UserQueryCache cache = new UserQueryCache(repository, 1 << 20);
+
+        Map<Gender, Double> averageAgeByGender = cache.execute(UserQuery.groupBy(GENDER, AVERAGE_AGE));
+        assertSame(averageAgeByGender, cache.execute(UserQuery.groupBy(GENDER, AVERAGE_AGE)));
+        assertEquals(15.0, averageAgeByGender.get(MALE), 0.0001);
+        assertEquals(1, cache.cache().missCount());
+        assertEquals(1, cache.cache().hitCount());
+
+        repository.insert(new User("Alex", 30, MALE));
+
+        assertEquals(0, cache.cache().size());
+        assertEquals(20.0, cache.execute(UserQuery.groupBy(GENDER, AVERAGE_AGE)).get(MALE), 0.0001);
+        assertThrows(UnsupportedOperationException.class, () -> averageAgeByGender.put(MALE, 0.0));
+    }
+
+    @Test
+    void testCollectorDescriptor() {
+        UserRepository repository = repository();
+        UserQueryCache cache = new UserQueryCache(repository, 1 << 20);
+
+        Map<Gender, Long> countByGender = cache.collect("countByGender", groupingBy(User::getGender, counting()));
+        assertSame(countByGender, cache.collect("countByGender", groupingBy(User::getGender, counting())));
+        assertEquals(cache.execute(UserQuery.groupBy(GENDER, COUNT)), countByGender);
+
+        repository.update(0, user -> user.setGender(FEMALE));
+        assertEquals(2L, cache.<Map<Gender, Long>>collect("countByGender", groupingBy(User::getGender, counting())).get(FEMALE).longValue());
+    }
+
+    /**
+     * Collected users are the repository's snapshots, a caller can't change the repository or other callers' results
+     */
+    @Test
+    void testCollectedUsersAreReadOnly() {
+        UserRepository repository = repository();
+        UserQueryCache cache = new UserQueryCache(repository, 1 << 20);
+
+        List<User> all = cache.collect("all", toList());
+        assertThrows(UnsupportedOperationException.class, () -> all.get(0).setAge(99));
+        assertEquals(9, repository.get(0).orElseThrow(IllegalStateException::new).getAge());
+        assertSame(all, cache.collect("all", toList()));
+        assertEquals(9, all.get(0).getAge());
+    }
+
+    /**
+     * Concurrent requests of the same query wait for a single computation
+     */
+    @Test
+    void testSingleFlight() throws Exception {
+        VersionedResultCache<String, String> cache = new VersionedResultCache<>(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> cache.get(1, "query", query -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return "result";
+                })));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (cache.sharedLoadCount() + loads.get() < 8) {
+                assertTrue(System.nanoTime() < deadline, "requests neither loaded nor joined a load within 5s");
+                Thread.sleep(1);
+            }
+            release.countDown();
+            for (Future<String> result : results) {
+                assertEquals("result", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(7, cache.sharedLoadCount());
+    }
+
+    @Test
+    void testEvictionBySize() {
+        VersionedResultCache<Integer, String> cache = new VersionedResultCache<>(100, String::length);
+
+        cache.get(1, 1, query -> "a".repeat(40));
+        cache.get(1, 2, query -> "b".repeat(40));
+        cache.get(1, 1, query -> "unused");
+        cache.get(1, 3, query -> "c".repeat(40));
+
+        assertEquals(1, cache.evictionCount());
+        assertEquals(80, cache.estimatedBytes());
+        assertEquals("a".repeat(40), cache.get(1, 1, query -> "reloaded"));
+        assertEquals("reloaded", cache.get(1, 2, query -> "reloaded"));
+
+        cache.get(1, 4, query -> "d".repeat(200));
+        assertEquals(0, cache.get(2, 4, query -> "").length());
+        cache.invalidateBefore(2);
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * A custom estimator sizes results the default one doesn't know, too large ones are not kept
+     */
+    @Test
+    void testCustomSizeEstimator() {
+        UserQueryCache cache = new UserQueryCache(repository(), 1000, result -> 2000);
+
+        cache.collect("names", mapping(User::getName, toList()));
+        cache.collect("names", mapping(User::getName, toList()));
+
+        assertEquals(2, cache.cache().missCount());
+        assertEquals(0, cache.cache().size());
+    }
+
+    /**
+     * A closed cache no longer listens to the repository
+     */
+    @Test
+    void testClose() {
+        UserRepository repository = repository();
+        UserQueryCache cache = new UserQueryCache(repository, 1 << 20);
+        cache.execute(UserQuery.groupBy(GENDER, COUNT));
+
+        cache.close();
+        assertEquals(0, cache.cache().size());
+
+        cache.execute(UserQuery.groupBy(GENDER, COUNT));
+        repository.insert(new User("Alex", 30, MALE));
+        assertEquals(1, cache.cache().size());
+        assertEquals(1, cache.cache().invalidationCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.cache.ResultSizes;
+import com.justalex.streams.collectors.JoinedText;
+import com.justalex.streams.sketches.CountMinSketch;
+import com.justalex.streams.sketches.HyperLogLog;
+import com.justalex.streams.sketches.TDigest;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+
+import static com.justalex.streams.collectors.JoiningCollectors.joiningRope;
+import static com.justalex.streams.collectors.SketchCollectors.hyperLogLog;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.counting;
+import static java.util.stream.Collectors.groupingBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultSizesExamples {
+
+    @Test
+    void testMapsAndCollections() {
+        Map<Gender, Long> countByGender = asList(new User("John", 9, MALE), new User("Bob", 19, FEMALE)).stream()
+            .collect(groupingBy(User::getGender, counting()));
+        List<String> names = asList("John", "Bob");
+
+        assertEquals(0, ResultSizes.estimate(null));
+        assertEquals(0, ResultSizes.estimate(MALE));
+        assertEquals(16 + 32 + 2 * (32 + 4 + 24), ResultSizes.estimate(countByGender));
+        assertEquals(16 + 16 + 2 * 4 + (40 + 8) + (40 + 6), ResultSizes.estimate(names));
+        assertEquals(16 + 40 + 8, ResultSizes.estimate(Optional.of("John")));
+        assertTrue(ResultSizes.estimate(Collections.nCopies(1000, "John")) > 1000 * 40);
+    }
+
+    /**
+     * Arrays are sized by length and component type, object arrays include their elements
+     */
+    @Test
+    void testArrays() {
+        assertEquals(16 + 1000, ResultSizes.estimate(new byte[1000]));
+        assertEquals(16 + 8000, ResultSizes.estimate(new long[1000]));
+        assertEquals(16 + 4000, ResultSizes.estimate(new int[1000]));
+        assertEquals(16 + 2 * 4 + 2 * (40 + 2), ResultSizes.estimate(new String[]{"a", "b"}));
+        assertEquals(16 + 2 * 4 + 2 * (16 + 80), ResultSizes.estimate(new long[2][10]));
+    }
+
+    /**
+     * Sketches and joined text are sized by their own internals, not as small objects
+     */
+    @Test
+    void testSketchesAndJoinedText() {
+        HyperLogLog distinctNames = IntStream.range(0, 100).boxed().collect(hyperLogLog(i -> i, 16));
+        assertTrue(ResultSizes.estimate(distinctNames) > 1 << 16);
+
+        CountMinSketch<String> sketch = new CountMinSketch<>(10);
+        sketch.add("John");
+        assertTrue(ResultSizes.estimate(sketch) > CountMinSketch.DEFAULT_DEPTH * CountMinSketch.DEFAULT_WIDTH * 8);
+
+        TDigest digest = new TDigest();
+        assertTrue(ResultSizes.estimate(digest) > 12 * (int) TDigest.DEFAULT_COMPRESSION * 8);
+
+        JoinedText text = IntStream.range(0, 10_000).mapToObj(i -> "name" + i).collect(joiningRope(", ", 16));
+        assertTrue(ResultSizes.estimate(text) > text.length() * 2);
+    }
+}
@@ -0,0 +1,86 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.sketches.TDigest;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static com.justalex.streams.collectors.SketchCollectors.*;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.stream.Collectors.groupingBy;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SketchCollectorsExamples {
+
+    @Test
+    void testDistinctCount() {
+        List<User> users = UserGenerator.builder().distinctNames(50_000).build().users(200_000).collect(Collectors.toList());
+        long exact = users.stream().map(User::getName).distinct().count();
+
+        long approximate = users.parallelStream().collect(distinctCount(User::getName));
+        assertEquals(exact, approximate, exact * 0.03);
+
+        assertEquals(4, Stream.of("a", "b", "c", "a", "d", "c", "a").collect(distinctCount(x -> x)).longValue());
+    }
+
+    /**
+     * Age percentiles per gender
+     */
+    @Test
+    void testQuantilesPerGroup() {
+        List<User> users = UserGenerator.builder().uniformAges(0, 100).build().users(100_000).collect(Collectors.toList());
+        Map<Gender, TDigest> ageDigests = users.parallelStream().collect(groupingBy(User::getGender, quantiles(User::getAge)));
+
+        TDigest male = ageDigests.get(MALE);
+        assertEquals(50, male.quantile(0.5), 1.5);
+        assertEquals(90, male.quantile(0.9), 1.5);
+        assertEquals(0.0, male.quantile(0));
+        assertEquals(100.0, male.quantile(1));
+
+        TDigest small = IntStream.rangeClosed(1, 5).boxed().collect(quantiles(Integer::doubleValue));
+        assertEquals(3, small.quantile(0.5), 0.001);
+    }
+
+    /**
+     * Merged digests keep the exact extremes of both sides, as parallel streams need
+     */
+    @Test
+    void testMergeKeepsExtremes() {
+        TDigest low = new TDigest();
+        TDigest high = new TDigest();
+        IntStream.range(0, 10_000).forEach(i -> low.add(i / 1000.0));
+        IntStream.range(0, 10_000).forEach(i -> high.add(100 + i / 1000.0));
+
+        TDigest merged = new TDigest().merge(high).merge(low);
+        assertEquals(0.0, merged.quantile(0));
+        assertEquals(109.999, merged.quantile(1));
+        assertEquals(0.0, merged.getMin());
+        assertEquals(109.999, merged.getMax());
+        assertEquals(20_000, merged.size());
+    }
+
+    /**
+     * Approximate version of testGroupBy0 that only keeps the most frequent values
+     */
+    @Test
+    void testHeavyHitters() {
+        Stream<String> noise = IntStream.range(0, 20_000).mapToObj(i -> "n" + i);
+        Stream<String> frequent = IntStream.range(0, 3_000).mapToObj(i -> i % 3 == 0 ? "a" : i % 3 == 1 ? "b" : i < 1500 ? "c" : "n" + i);
+        LinkedHashMap<String, Long> top = Stream.concat(noise, frequent).parallel().collect(heavyHitters(x -> x, 3));
+
+        assertEquals(3, top.size());
+        assertTrue(top.containsKey("a"));
+        assertTrue(top.containsKey("b"));
+        assertTrue(top.containsKey("c"));
+        assertTrue(top.get("a") >= 1000);
+        assertEquals("c", top.keySet().toArray()[2]);
+    }
+}
@@ -0,0 +1,51 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
+
+import static com.justalex.streams.collectors.StripedGroupingCollector.groupingByConcurrent;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.counting;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StripedGroupingExamples {
+
+    /**
+     * Same as testGroupBy11
+     */
+    @Test
+    void testGroupByConcurrent() {
+        List<User> users = asList(
+            new User("John", 9, MALE),
+            new User("John", 21, MALE),
+            new User("Bob", 19, FEMALE)
+        );
+        ConcurrentMap<Gender, List<User>> usersByGenderConcurrent = users.parallelStream().collect(groupingByConcurrent(User::getGender));
+
+        // concurrent execution doesn't guarantee order
+        assertEquals(2, usersByGenderConcurrent.get(MALE).size());
+        assertEquals(1, usersByGenderConcurrent.get(FEMALE).size());
+        assertTrue(groupingByConcurrent(User::getGender).characteristics().contains(Collector.Characteristics.CONCURRENT));
+    }
+
+    @Test
+    void testManyThreads() {
+        List<User> users = UserGenerator.builder().build().users(200_000).collect(Collectors.toList());
+        Map<Gender, Long> expected = users.stream().collect(Collectors.groupingBy(User::getGender, counting()));
+
+        assertEquals(expected, users.parallelStream().collect(groupingByConcurrent(User::getGender, counting())));
+        assertEquals(expected.get(MALE).intValue(), users.parallelStream().collect(groupingByConcurrent(User::getGender)).get(MALE).size());
+        // sequential stream: a single container filled by one thread, the stripes are still merged by the finisher
+        assertEquals(expected, users.stream().collect(groupingByConcurrent(User::getGender, counting())));
+    }
+}
@@ -0,0 +1,66 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static com.justalex.streams.collectors.TopKCollectors.*;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.Comparator.comparingInt;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopKExamples {
+
+    /**
+     * Two smallest values of testSortMap without sorting every entry
+     */
+    @Test
+    void testTopKEntries() {
+        HashMap<String, Integer> map = new HashMap<>();
+        map.put("a", 2);
+        map.put("b", 1);
+        map.put("c", 3);
+
+        List<Map.Entry<String, Integer>> smallest = map.entrySet().stream().collect(bottomK(2, Map.Entry.comparingByValue()));
+        assertEquals("b", smallest.get(0).getKey());
+        assertEquals("a", smallest.get(1).getKey());
+
+        List<Map.Entry<String, Integer>> greatest = map.entrySet().stream().collect(topK(5, Map.Entry.comparingByValue()));
+        assertEquals(asList("c", "a", "b"), greatest.stream().map(Map.Entry::getKey).collect(Collectors.toList()));
+    }
+
+    /**
+     * Like testGroupBy7 maxBy, but keeping the two oldest users
+     */
+    @Test
+    void testTopKPerGroup() {
+        List<User> users = asList(
+            new User("John", 9, MALE),
+            new User("John", 21, MALE),
+            new User("Carl", 35, MALE),
+            new User("John", 19, FEMALE)
+        );
+        Map<Gender, List<User>> oldestByGender = users.stream().collect(topKPerGroup(User::getGender, 2, comparingInt(User::getAge)));
+
+        assertEquals(asList(new User("Carl", 35, MALE), new User("John", 21, MALE)), oldestByGender.get(MALE));
+        assertEquals(asList(new User("John", 19, FEMALE)), oldestByGender.get(FEMALE));
+    }
+
+    @Test
+    void testParallelMatchesSort() {
+        List<User> users = UserGenerator.builder().build().users(100_000).collect(Collectors.toList());
+        Comparator<User> byAgeThenName = comparingInt(User::getAge).thenComparing(User::getName);
+
+        List<Integer> expected = users.stream().sorted(byAgeThenName.reversed()).limit(100).map(User::getAge).collect(Collectors.toList());
+        List<Integer> actual = users.parallelStream().collect(topK(100, byAgeThenName)).stream().map(User::getAge).collect(Collectors.toList());
+
+        assertEquals(expected, actual);
+        assertTrue(users.stream().collect(topK(0, byAgeThenName)).isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.bitmap.UserBitmapIndex;
+import com.justalex.streams.bitmap.UserFilter;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import com.justalex.streams.users.UserTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static com.justalex.streams.bitmap.UserFilter.*;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.stream.Collectors.averagingInt;
+import static java.util.stream.Collectors.groupingBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class UserBitmapIndexExamples {
+
+    private final UserTable table = UserGenerator.builder().build().fill(new UserTable(), 20_000);
+    private final List<User> users = table.toList();
+    private final UserBitmapIndex index = new UserBitmapIndex(table, 7);
+
+    @Test
+    void testFilterTree() {
+        assertMatches(user -> user.getGender() == MALE && user.getAge() >= 18 && user.getAge() <= 25,
+            and(gender(MALE), ageBetween(18, 25)));
+        assertMatches(user -> user.getGender() == FEMALE || user.getAge() < 10,
+            or(gender(FEMALE), ageBetween(Integer.MIN_VALUE, 9)));
+        assertMatches(user -> !(user.getAge() >= 30 && user.getAge() <= 60),
+            not(ageBetween(30, 60)));
+        assertMatches(user -> false, ageBetween(200, 300));
+        assertMatches(user -> user.getAge() >= 0 && user.getAge() <= 100, ageBetween(0, 100));
+    }
+
+    /**
+     * Matching rows are fed to the existing collectors
+     */
+    @Test
+    void testFeedsCollectors() {
+        Map<Gender, Double> expected = users.stream()
+            .filter(user -> user.getAge() >= 18)
+            .collect(groupingBy(User::getGender, averagingInt(User::getAge)));
+
+        assertEquals(expected, index.users(ageBetween(18, Integer.MAX_VALUE)).collect(groupingBy(User::getGender, averagingInt(User::getAge))));
+        assertEquals(users.stream().filter(user -> user.getGender() == MALE).mapToInt(User::getAge).sum(), index.ages(gender(MALE)).sum());
+    }
+
+    @Test
+    void testStaleIndex() {
+        UserTable growing = UserGenerator.builder().build().fill(new UserTable(), 10);
+        UserBitmapIndex staleIndex = new UserBitmapIndex(growing);
+        growing.add(new User("John", 9, MALE));
+
+        assertThrows(IllegalStateException.class, () -> staleIndex.evaluate(gender(MALE)));
+
+        UserBitmapIndex changedIndex = new UserBitmapIndex(growing);
+        growing.setAge(0, 99);
+        assertThrows(IllegalStateException.class, () -> changedIndex.evaluate(ageBetween(90, 100)));
+    }
+
+    /**
+     * Outliers land in the edge buckets instead of spreading the buckets over the whole int range
+     */
+    @Test
+    void testOutlierAges() {
+        UserTable withOutliers = UserGenerator.builder().build().fill(new UserTable(), 1_000);
+        withOutliers.add("Old", Integer.MAX_VALUE, MALE);
+        withOutliers.add("Negative", Integer.MIN_VALUE, FEMALE);
+        UserBitmapIndex outlierIndex = new UserBitmapIndex(withOutliers, 1);
+        List<User> rows = withOutliers.toList();
+
+        for (int[] range : new int[][]{{0, 100}, {50, Integer.MAX_VALUE}, {Integer.MIN_VALUE, 10}, {101, Integer.MAX_VALUE}, {Integer.MIN_VALUE, -1}}) {
+            List<Integer> expected = withOutliers.rows()
+                .filter(row -> rows.get(row).getAge() >= range[0] && rows.get(row).getAge() <= range[1])
+                .boxed().collect(Collectors.toList());
+            assertEquals(expected, outlierIndex.rowIds(ageBetween(range[0], range[1])).boxed().collect(Collectors.toList()));
+        }
+    }
+
+    private void assertMatches(Predicate<User> predicate, UserFilter filter) {
+        List<Integer> expected = table.rows().filter(row -> predicate.test(users.get(row))).boxed().collect(Collectors.toList());
+        assertEquals(expected, index.rowIds(filter).boxed().collect(Collectors.toList()), filter.toString());
+    }
+}
@@ -0,0 +1,133 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.io.UserFileReader;
+import com.justalex.streams.io.UserFileWriter;
+import com.justalex.streams.io.UserView;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.summarizingInt;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserFileExamples {
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        List<User> users = asList(
+            new User("John", 9, MALE),
+            new User("Jürgen", 21, MALE),
+            new User("John", 19, FEMALE),
+            new User(null, 1, null)
+        );
+        Path file = Files.createTempFile("users", ".bin");
+        try {
+            assertEquals(4, UserFileWriter.write(file, users.stream()));
+
+            try (UserFileReader reader = new UserFileReader(file)) {
+                assertEquals(4, reader.size());
+                assertEquals(users, reader.users().collect(Collectors.toList()));
+                assertEquals("Jürgen", reader.getName(1));
+                assertEquals(50, reader.ages().sum());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * Grouping runs over a parallel stream of the mapped file
+     */
+    @Test
+    void testParallelGrouping() throws IOException {
+        List<User> users = UserGenerator.builder().build().users(50_000).collect(Collectors.toList());
+        Path file = Files.createTempFile("users", ".bin");
+        try {
+            UserFileWriter.write(file, users.stream());
+
+            try (UserFileReader reader = new UserFileReader(file)) {
+                Map<Gender, IntSummaryStatistics> expected = users.stream().collect(groupingBy(User::getGender, summarizingInt(User::getAge)));
+                Map<Gender, IntSummaryStatistics> actual = reader.users().parallel().collect(groupingBy(User::getGender, summarizingInt(User::getAge)));
+
+                assertEquals(expected.get(MALE).toString(), actual.get(MALE).toString());
+                assertEquals(expected.get(FEMALE).toString(), actual.get(FEMALE).toString());
+                assertEquals(users.stream().mapToInt(User::getAge).sum(), reader.ages().parallel().sum());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * filter/map/sum over views, only the kept rows become real users
+     */
+    @Test
+    void testViews() throws IOException {
+        List<User> users = UserGenerator.builder().build().users(20_000).collect(Collectors.toList());
+        Path file = Files.createTempFile("users", ".bin");
+        try {
+            UserFileWriter.write(file, users.stream());
+
+            try (UserFileReader reader = new UserFileReader(file)) {
+                int expectedSum = users.stream().filter(user -> user.getGender() == MALE).mapToInt(User::getAge).sum();
+                assertEquals(expectedSum, reader.views().filter(user -> user.getGender() == MALE).mapToInt(User::getAge).sum());
+                assertEquals(expectedSum, reader.views().parallel().filter(user -> user.getGender() == MALE).mapToInt(User::getAge).sum());
+
+                List<User> adults = reader.views().filter(user -> user.getAge() >= 18).map(UserView::materialize).collect(Collectors.toList());
+                assertEquals(users.stream().filter(user -> user.getAge() >= 18).collect(Collectors.toList()), adults);
+
+                UserView view = reader.views().findFirst().orElseThrow(IllegalStateException::new);
+                assertEquals(users.get(0), view);
+                assertEquals(users.get(0).hashCode(), view.hashCode());
+                assertThrows(UnsupportedOperationException.class, () -> view.setAge(1));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void testNotAUserFile() throws IOException {
+        Path file = Files.createTempFile("users", ".bin");
+        try {
+            Files.write(file, new byte[64]);
+            assertThrows(IOException.class, () -> new UserFileReader(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * A stream failing half way leaves the file unfinished instead of passing it off as complete
+     */
+    @Test
+    void testFailedWrite() throws IOException {
+        Path file = Files.createTempFile("users", ".bin");
+        try {
+            Stream<User> failing = Stream.concat(
+                UserGenerator.builder().build().users(10_000),
+                Stream.<User>generate(() -> {
+                    throw new IllegalStateException("Source failed");
+                }).limit(1));
+
+            assertThrows(IllegalStateException.class, () -> UserFileWriter.write(file, failing));
+            assertThrows(IOException.class, () -> new UserFileReader(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
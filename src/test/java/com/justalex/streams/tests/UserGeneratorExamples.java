@@ -0,0 +1,68 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import com.justalex.streams.users.UserTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.justalex.streams.users.Gender.MALE;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserGeneratorExamples {
+
+    /**
+     * Same seed gives the same users, sequential or parallel
+     */
+    @Test
+    void testDeterministicSplitting() {
+        UserGenerator generator = UserGenerator.builder().seed(7).build();
+
+        List<User> sequential = generator.users(10_000).collect(Collectors.toList());
+        List<User> parallel = generator.users(10_000).parallel().collect(Collectors.toList());
+
+        assertEquals(sequential, parallel);
+        assertEquals(sequential, UserGenerator.builder().seed(7).build().users(10_000).collect(Collectors.toList()));
+        assertNotEquals(sequential, UserGenerator.builder().seed(8).build().users(10_000).collect(Collectors.toList()));
+    }
+
+    /**
+     * The stream is lazy, a huge count costs nothing until elements are pulled
+     */
+    @Test
+    void testLazy() {
+        UserGenerator generator = UserGenerator.builder().build();
+
+        assertEquals(1_000_000_000L, generator.users(1_000_000_000L).spliterator().estimateSize());
+        assertEquals(5, generator.users(1_000_000_000L).limit(5).count());
+    }
+
+    @Test
+    void testParameters() {
+        UserGenerator generator = UserGenerator.builder()
+            .distinctNames(10)
+            .normalAges(30, 5, 18, 65)
+            .maleRatio(1.0)
+            .build();
+
+        List<User> users = generator.users(5_000).collect(Collectors.toList());
+        IntSummaryStatistics ages = users.stream().mapToInt(User::getAge).summaryStatistics();
+
+        assertTrue(ages.getMin() >= 18);
+        assertTrue(ages.getMax() <= 65);
+        assertEquals(30, ages.getAverage(), 1);
+        assertTrue(users.stream().allMatch(user -> user.getGender() == MALE));
+        assertTrue(users.stream().map(User::getName).distinct().count() <= 10);
+    }
+
+    @Test
+    void testFillTable() {
+        UserGenerator generator = UserGenerator.builder().build();
+        UserTable table = generator.fill(new UserTable(3000), 3000);
+
+        assertEquals(generator.users(3000).collect(Collectors.toList()), table.toList());
+    }
+}
@@ -0,0 +1,145 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.query.UserQuery;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import com.justalex.streams.users.UserTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.IntSummaryStatistics;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static com.justalex.streams.query.Aggregate.*;
+import static com.justalex.streams.query.GroupKey.*;
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserQueryExamples {
+
+    private final List<User> users = asList(
+        new User("John", 9, MALE),
+        new User("John", 21, MALE),
+        new User("Bob", 19, FEMALE)
+    );
+
+    /**
+     * Same as testGroupBy6
+     */
+    @Test
+    void testSumAgeByGender() {
+        Map<Gender, Integer> totalAgePerGender = UserQuery.groupBy(GENDER, SUM_AGE).execute(users);
+
+        assertEquals(users.stream().collect(groupingBy(User::getGender, summingInt(User::getAge))), totalAgePerGender);
+        assertEquals(21 + 9, totalAgePerGender.get(MALE).intValue());
+    }
+
+    /**
+     * Same as testGroupBy5 and testGroupBy8
+     */
+    @Test
+    void testAverageAndSummary() {
+        assertEquals(users.stream().collect(groupingBy(User::getGender, averagingInt(User::getAge))),
+            UserQuery.groupBy(GENDER, AVERAGE_AGE).execute(users));
+
+        Map<Gender, IntSummaryStatistics> byGenderIntSummary = UserQuery.groupBy(GENDER, AGE_SUMMARY).execute(users);
+        assertEquals(2, byGenderIntSummary.get(MALE).getCount());
+        assertEquals(21, byGenderIntSummary.get(MALE).getMax());
+        assertEquals(9, byGenderIntSummary.get(MALE).getMin());
+        assertEquals(19, byGenderIntSummary.get(FEMALE).getSum());
+    }
+
+    @Test
+    void testWhere() {
+        Map<String, Long> adultsByName = UserQuery.groupBy(NAME, COUNT).whereAgeBetween(18, 150).execute(users);
+        assertEquals(2, adultsByName.size());
+        assertEquals(1L, adultsByName.get("John").longValue());
+
+        Map<Integer, Long> johnsByAge = UserQuery.groupBy(AGE, COUNT).whereName("John", "Alice").whereGender(MALE).execute(users);
+        assertEquals(2, johnsByAge.size());
+        assertTrue(UserQuery.groupBy(AGE, COUNT).whereAgeBetween(0, 10).whereAgeBetween(20, 30).execute(users).isEmpty());
+    }
+
+    /**
+     * Generated users against the equivalent stream pipelines
+     */
+    @Test
+    void testMatchesStreams() {
+        List<User> generated = UserGenerator.builder().distinctNames(50).build().users(10_000).collect(toList());
+
+        assertEquals(generated.stream().filter(user -> user.getGender() == FEMALE && user.getAge() >= 20 && user.getAge() <= 29)
+                .collect(groupingBy(User::getName, counting())),
+            UserQuery.groupBy(NAME, COUNT).whereGender(FEMALE).whereAgeBetween(20, 29).execute(generated));
+        assertEquals(generated.stream().collect(groupingBy(User::getAge, summingInt(User::getAge))),
+            UserQuery.groupBy(AGE, SUM_AGE).execute(generated));
+        assertEquals(generated.stream().filter(user -> user.getAge() > 50).collect(groupingBy(User::getGender, averagingInt(User::getAge))),
+            UserQuery.groupBy(GENDER, AVERAGE_AGE).whereAgeBetween(51, Integer.MAX_VALUE).execute(generated));
+    }
+
+    /**
+     * Only the shape of a query selects the plan, not the filter values or the aggregate,
+     * and filter values of one execution don't leak into the next
+     */
+    @Test
+    void testPlanCache() {
+        assertTrue(UserQuery.groupBy(GENDER, MAX_AGE).whereAgeBetween(1, 2).whereName("Bob").execute(users).isEmpty());
+        int plans = UserQuery.cachedPlans();
+
+        Map<Gender, Integer> maxAge = UserQuery.groupBy(GENDER, MAX_AGE).whereName("John").whereAgeBetween(0, 100).execute(users);
+        UserQuery.groupBy(GENDER, MIN_AGE).whereAgeBetween(5, 6).whereName("Bob").execute(users);
+        assertEquals(21, maxAge.get(MALE).intValue());
+        assertEquals(plans, UserQuery.cachedPlans());
+
+        Map<Gender, Integer> minAge = UserQuery.groupBy(GENDER, MIN_AGE).execute(users);
+        assertEquals(9, minAge.get(MALE).intValue());
+        assertEquals(19, minAge.get(FEMALE).intValue());
+    }
+
+    /**
+     * Every source class gets a plan of its own, the results don't depend on it
+     */
+    @Test
+    void testPlanPerSource() {
+        UserQuery<String, Integer> query = UserQuery.groupBy(NAME, MAX_AGE).whereGender(MALE);
+        Map<String, Integer> expected = query.execute(users);
+        int plans = UserQuery.cachedPlans();
+
+        Iterable<User> iterable = users::iterator;
+        assertEquals(expected, query.execute(new ArrayList<>(users)));
+        assertEquals(expected, query.execute(new LinkedList<>(users)));
+        assertEquals(expected, query.execute(iterable));
+        assertEquals(expected, query.execute(UserTable.of(users).users()::iterator));
+        assertEquals(plans + 4, UserQuery.cachedPlans());
+
+        assertEquals(expected, query.execute(iterable));
+        assertEquals(plans + 4, UserQuery.cachedPlans());
+    }
+
+    @Test
+    void testNullKey() {
+        List<User> withNullGender = asList(new User("John", 9, null));
+        assertThrows(NullPointerException.class, () -> UserQuery.groupBy(GENDER, COUNT).execute(withNullGender));
+        assertTrue(UserQuery.groupBy(GENDER, COUNT).whereGender(MALE).execute(withNullGender).isEmpty());
+    }
+
+    /**
+     * A filter on the full age range matches every user, so it is the same query as no filter
+     */
+    @Test
+    void testEquality() {
+        UserQuery<Gender, Long> all = UserQuery.groupBy(GENDER, COUNT);
+        UserQuery<Gender, Long> fullRange = all.whereAgeBetween(Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+        assertEquals(all, fullRange);
+        assertEquals(all.hashCode(), fullRange.hashCode());
+        assertEquals(all.toString(), fullRange.toString());
+        assertNotEquals(all, all.whereAgeBetween(18, 150));
+        assertTrue(all.whereAgeBetween(18, 150).toString().contains("age in [18, 150]"));
+    }
+}
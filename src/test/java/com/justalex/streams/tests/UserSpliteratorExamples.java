@@ -0,0 +1,96 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.spliterators.UserSpliterators;
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.groupingByConcurrent;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserSpliteratorExamples {
+
+    private static final int NAME_BYTES = 8;
+    private static final int RECORD_SIZE = NAME_BYTES + 4 + 1;
+
+    /**
+     * A linked list is drained into chunks and then split in exact halves
+     */
+    @Test
+    void testLinkedListSplitsEvenly() {
+        List<User> users = UserGenerator.builder().build().users(10_000).collect(Collectors.toCollection(LinkedList::new));
+        Spliterator<User> suffix = UserSpliterators.of(users);
+        Spliterator<User> prefix = suffix.trySplit();
+
+        assertEquals(5_000, prefix.estimateSize());
+        assertEquals(5_000, suffix.estimateSize());
+        assertTrue(suffix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.NONNULL));
+
+        List<User> streamed = UserSpliterators.stream(UserSpliterators.of(users), true).collect(Collectors.toList());
+        assertEquals(users, streamed);
+    }
+
+    @Test
+    void testArray() {
+        User[] users = {new User("John", 9, MALE), new User("John", 21, MALE), new User("Bob", 19, FEMALE)};
+        ConcurrentMap<Gender, List<User>> usersByGender = UserSpliterators.stream(UserSpliterators.of(users), true)
+            .collect(groupingByConcurrent(User::getGender));
+
+        assertEquals(2, usersByGender.get(MALE).size());
+        assertEquals(1, usersByGender.get(FEMALE).size());
+        assertEquals(asList(users), UserSpliterators.stream(UserSpliterators.of(asList(users)), false).collect(Collectors.toList()));
+    }
+
+    /**
+     * Fixed width records: name padded to 8 bytes, age, gender ordinal
+     */
+    @Test
+    void testFileRange() throws IOException {
+        List<User> users = UserGenerator.builder().distinctNames(100).build().users(5_000).collect(Collectors.toList());
+        Path file = Files.createTempFile("users", ".bin");
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(users.size() * RECORD_SIZE);
+            for (User user : users) {
+                buffer.put(Arrays.copyOf(user.getName().getBytes(StandardCharsets.US_ASCII), NAME_BYTES));
+                buffer.putInt(user.getAge());
+                buffer.put((byte) user.getGender().ordinal());
+            }
+            Files.write(file, buffer.array());
+
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                Spliterator<User> spliterator = UserSpliterators.ofFile(channel, 0, RECORD_SIZE, UserSpliteratorExamples::decode);
+                assertEquals(5_000, spliterator.estimateSize());
+
+                List<User> read = UserSpliterators.stream(spliterator, true).collect(Collectors.toList());
+                assertEquals(users, read);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static User decode(ByteBuffer buffer) {
+        byte[] name = new byte[NAME_BYTES];
+        buffer.get(name);
+        int length = 0;
+        while (length < NAME_BYTES && name[length] != 0) {
+            length++;
+        }
+        return new User(new String(name, 0, length, StandardCharsets.US_ASCII), buffer.getInt(), Gender.values()[buffer.get()]);
+    }
+}
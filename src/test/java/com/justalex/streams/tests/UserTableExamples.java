@@ -0,0 +1,90 @@
+package com.justalex.streams.tests;
+
+import com.justalex.streams.users.Gender;
+import com.justalex.streams.users.User;
+import com.justalex.streams.users.UserTable;
+import org.junit.jupiter.api.Test;
+
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+
+import static com.justalex.streams.users.Gender.FEMALE;
+import static com.justalex.streams.users.Gender.MALE;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UserTableExamples {
+
+    /**
+     * Same users loaded into columns and read back as rows
+     */
+    @Test
+    void testLoadFromList() {
+        List<User> users = asList(
+            new User("John", 9, MALE),
+            new User("John", 21, MALE),
+            new User("Bob", 19, FEMALE)
+        );
+        UserTable table = UserTable.of(users);
+
+        assertEquals(3, table.size());
+        assertEquals(2, table.distinctNames());
+        assertEquals(table.getNameId(0), table.getNameId(1));
+        assertEquals(users, table.toList());
+        assertEquals(users.get(2), table.row(2));
+        assertEquals(users.get(2).hashCode(), table.row(2).hashCode());
+    }
+
+    /**
+     * Ages are summed straight from the int column
+     */
+    @Test
+    void testAges() {
+        UserTable table = UserTable.of(asList(
+            new User("John", 9, MALE),
+            new User("John", 21, MALE),
+            new User("Bob", 19, FEMALE)
+        ));
+
+        assertEquals(49, table.ages().sum());
+        assertEquals(30, table.ages(MALE).sum());
+    }
+
+    /**
+     * Columnar version of groupingBy(User::getGender, summarizingInt(User::getAge))
+     */
+    @Test
+    void testSummarizeAgeByGender() {
+        UserTable table = UserTable.of(asList(
+            new User("John", 9, MALE),
+            new User("John", 21, MALE),
+            new User("John", 19, FEMALE)
+        ));
+        Map<Gender, IntSummaryStatistics> byGenderIntSummary = table.summarizeAgeByGender();
+        assertEquals(2, byGenderIntSummary.get(MALE).getCount());
+        assertEquals(21, byGenderIntSummary.get(MALE).getMax());
+        assertEquals(9, byGenderIntSummary.get(MALE).getMin());
+
+        Map<Gender, Double> averageAgeByGender = table.users().collect(groupingBy(User::getGender, averagingInt(User::getAge)));
+        assertEquals(15, averageAgeByGender.get(MALE).doubleValue());
+    }
+
+    /**
+     * Row views write through to the columns
+     */
+    @Test
+    void testRowWritesThrough() {
+        UserTable table = UserTable.of(asList(new User("John", 9, MALE)));
+        User row = table.row(0);
+        row.setAge(10);
+        row.setName("Rob");
+        row.setGender(FEMALE);
+
+        assertEquals(10, table.getAge(0));
+        assertEquals("Rob", table.getName(0));
+        assertEquals(FEMALE, table.getGender(0));
+        assertEquals(new User("Rob", 10, FEMALE), row);
+    }
+}